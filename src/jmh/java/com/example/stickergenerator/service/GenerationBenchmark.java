@@ -0,0 +1,53 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.StickerCombo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uncached generateNameCombinations over synthetic catalogs, cycling through targets of one length.
+ * Uses the default generator limits (5 stickers, 100 deep results, 250 ms budget). nearMisses runs
+ * the fuzzy suggestions (2 edits, 2 stickers) for the same targets.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class GenerationBenchmark {
+    private static final long SEED = 42;
+    private static final int TARGETS = 64;
+
+    @Param({"500", "5000", "50000"})
+    int catalogSize;
+
+    @Param({"4", "8", "12", "16"})
+    int targetLength;
+
+    private NameGeneratorService generator;
+    private String[] targets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticCatalog catalog = new SyntheticCatalog(catalogSize, SEED);
+        StickerService stickerService = new StickerService(new ObjectMapper(),
+            catalog.writeTo(SyntheticCatalog.temporaryFile()).toString(), false);
+        // Cache disabled, every call generates
+        generator = new NameGeneratorService(stickerService, new SimpleMeterRegistry(), 5, 100, 250, 0, 0, 2, 2);
+        targets = catalog.targets(targetLength, TARGETS, SEED);
+    }
+
+    @Benchmark
+    public List<StickerCombo> generate() {
+        return generator.generateNameCombinations(targets[next++ % TARGETS]);
+    }
+
+    @Benchmark
+    public List<StickerCombo> nearMisses() {
+        return generator.findNearMissSpellings(targets[next++ % TARGETS], 5);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.Sticker;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StickerService.parseSticker over the bundled sticker list, plus layouts that miss the hand-written fast path
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ParseStickerBenchmark {
+    private String[] names;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<String> loaded;
+        try (InputStream in = getClass().getResourceAsStream("/data/stickers.json")) {
+            loaded = new ArrayList<>(new ObjectMapper().readValue(in, new TypeReference<List<String>>() {}));
+        }
+        loaded.add("Sticker|s1mple(Gold)|Rio 2022");
+        loaded.add("Sticker | Team Spirit");
+        loaded.add("Sticker  |  ZywOo  (Holo)  |  Paris 2023");
+        names = loaded.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public Sticker parseSticker() {
+        String name = names[next];
+        next = next + 1 == names.length ? 0 : next + 1;
+        return StickerService.parseSticker(name);
+    }
+}
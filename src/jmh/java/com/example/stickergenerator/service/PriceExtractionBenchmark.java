@@ -0,0 +1,53 @@
+package com.example.stickergenerator.service;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price extraction on a recorded market search page: the price text alone, the rows of an already
+ * parsed page, and the whole page from raw HTML as the scraper sees it
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class PriceExtractionBenchmark {
+    private static final String[] PRICE_TEXTS = {
+        "$0.03", "Starting at: $1.24", "$1,234.56 USD", "€2,49", "£0.87", "Lowest price: $12.30", "₹ 149.00", "1.99"
+    };
+
+    private String html;
+    private Document page;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/benchmark/steam-search-s1mple.html")) {
+            html = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        page = Jsoup.parse(html);
+    }
+
+    @Benchmark
+    public double extractPrice() {
+        String text = PRICE_TEXTS[next];
+        next = next + 1 == PRICE_TEXTS.length ? 0 : next + 1;
+        return SteamScraperPriceProvider.extractPrice(text);
+    }
+
+    @Benchmark
+    public Map<String, Double> parseSearchPage() {
+        return SteamScraperPriceProvider.parseSearchPage(page);
+    }
+
+    @Benchmark
+    public Map<String, Double> parseSearchPageFromHtml() {
+        return SteamScraperPriceProvider.parseSearchPage(Jsoup.parse(html));
+    }
+}
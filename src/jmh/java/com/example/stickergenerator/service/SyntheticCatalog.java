@@ -0,0 +1,73 @@
+package com.example.stickergenerator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic sticker lists of any size in the stickers.json format, and targets spelled
+ * from their player names, so benchmark runs are comparable across machines and commits
+ */
+final class SyntheticCatalog {
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789";
+    private static final String[] RARITIES = {"", " (Holo)", " (Gold)", " (Glitter)"};
+    private static final String[] TOURNAMENTS = {
+        "Katowice 2019", "Berlin 2019", "Stockholm 2021", "Antwerp 2022", "Rio 2022", "Paris 2023", "Copenhagen 2024"
+    };
+
+    private final List<String> players = new ArrayList<>();
+    private final List<String> fullNames = new ArrayList<>();
+
+    SyntheticCatalog(int stickerCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        while (fullNames.size() < stickerCount) {
+            String player = randomName(random, 3 + random.nextInt(8));
+            players.add(player);
+            String tournament = TOURNAMENTS[random.nextInt(TOURNAMENTS.length)];
+            int variants = 1 + random.nextInt(RARITIES.length);
+            for (int i = 0; i < variants && fullNames.size() < stickerCount; i++) {
+                fullNames.add("Sticker | " + player + RARITIES[i] + " | " + tournament);
+            }
+        }
+    }
+
+    private static String randomName(SplittableRandom random, int length) {
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            name.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return name.toString();
+    }
+
+    Path writeTo(Path file) throws IOException {
+        new ObjectMapper().writeValue(file.toFile(), fullNames);
+        return file;
+    }
+
+    /**
+     * Targets of exactly the given length, built by joining random player names and cutting the last one
+     */
+    String[] targets(int length, int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] targets = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder target = new StringBuilder();
+            while (target.length() < length) {
+                target.append(players.get(random.nextInt(players.size())));
+            }
+            targets[i] = target.substring(0, length);
+        }
+        return targets;
+    }
+
+    static Path temporaryFile() throws IOException {
+        Path file = Files.createTempFile("stickers-benchmark", ".json");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+}
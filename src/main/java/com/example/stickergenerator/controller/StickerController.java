@@ -1,15 +1,25 @@
 package com.example.stickergenerator.controller;
 
 import com.example.stickergenerator.model.*;
+import com.example.stickergenerator.service.BatchGenerationService;
+import com.example.stickergenerator.service.ComboPricingService;
+import com.example.stickergenerator.service.ComboStreamService;
 import com.example.stickergenerator.service.NameGeneratorService;
 import com.example.stickergenerator.service.SteamMarketService;
+import com.example.stickergenerator.service.StickerCatalog;
+import com.example.stickergenerator.service.StickerService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import reactor.core.publisher.Flux;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
 @RequestMapping("/api/stickers")
@@ -17,47 +27,129 @@ import java.util.stream.Collectors;
 public class StickerController {
     private final NameGeneratorService nameGeneratorService;
     private final SteamMarketService steamMarketService;
+    private final StickerService stickerService;
+    private final ComboPricingService comboPricingService;
+    private final ComboStreamService comboStreamService;
+    private final BatchGenerationService batchGenerationService;
+    
+    // Each /generate call queues for Steam's rate limit under its own key
+    private final AtomicLong requestIds = new AtomicLong();
     
     public StickerController(NameGeneratorService nameGeneratorService, 
-                           SteamMarketService steamMarketService) {
+                           SteamMarketService steamMarketService,
+                           StickerService stickerService,
+                           ComboPricingService comboPricingService,
+                           ComboStreamService comboStreamService,
+                           BatchGenerationService batchGenerationService) {
         this.nameGeneratorService = nameGeneratorService;
         this.steamMarketService = steamMarketService;
+        this.stickerService = stickerService;
+        this.comboPricingService = comboPricingService;
+        this.comboStreamService = comboStreamService;
+        this.batchGenerationService = batchGenerationService;
     }
     
     @PostMapping("/generate")
     public ResponseEntity<List<StickerCombo>> generateStickerCombinations(
             @Valid @RequestBody NameRequest request) {
         
+        int maxStickers = request.getMaxStickers() != null ? request.getMaxStickers() : Integer.MAX_VALUE;
         List<StickerCombo> combinations = nameGeneratorService
-            .generateNameCombinations(request.getName());
+            .generateNameCombinations(request.getName(), maxStickers, request.isExpandVariants());
         
-        // Fetch prices for each combination
-        for (StickerCombo combo : combinations) {
-            List<CompletableFuture<StickerPrice>> priceFutures = combo.getStickers().stream()
-                .map(sticker -> steamMarketService.getStickerPrice(sticker.getFullName()))
-                .collect(Collectors.toList());
-            
-            // Keep prices in same order as stickers to maintain correlation
-            List<StickerPrice> prices = priceFutures.stream()
-                .map(CompletableFuture::join)
-                .collect(Collectors.toList());
-            
-            combo.setPrices(prices);
-            combo.setTotalPrice(prices.stream().mapToDouble(StickerPrice::getPrice).sum());
+        String requester = "generate-" + requestIds.incrementAndGet();
+        combinations = priceAndSort(combinations, request, requester);
+        
+        if (request.isFuzzy()) {
+            // Near misses follow the exact spellings, closest first rather than by price
+            List<StickerCombo> suggestions = nameGeneratorService.findNearMissSpellings(request.getName(), maxStickers);
+            Integer limit = request.getLimit();
+            if (limit != null && suggestions.size() > limit) {
+                suggestions = new ArrayList<>(suggestions.subList(0, limit));
+            }
+            comboPricingService.priceCombinations(suggestions, requester);
+            combinations = new ArrayList<>(combinations);
+            combinations.addAll(suggestions);
+        }
+        
+        return ResponseEntity.ok(combinations);
+    }
+    
+    private List<StickerCombo> priceAndSort(List<StickerCombo> combinations, NameRequest request, String requester) {
+        Integer limit = request.getLimit();
+        if (limit != null && "asc".equalsIgnoreCase(request.getSortOrder())) {
+            // Only candidates that can still be among the cheapest get live prices
+            return comboPricingService.cheapestCombinations(combinations, limit, requester);
         }
+        if (limit != null && !"desc".equalsIgnoreCase(request.getSortOrder()) && combinations.size() > limit) {
+            // Unsorted: the first ones in generation order, no need to price the rest
+            combinations = new ArrayList<>(combinations.subList(0, limit));
+        }
+        
+        // Price all combinations at once: each distinct sticker is fetched once, concurrently
+        comboPricingService.priceCombinations(combinations, requester);
         
         // Sort combinations by total price if requested
         if ("desc".equalsIgnoreCase(request.getSortOrder())) {
-            combinations.sort(Comparator.comparingDouble(StickerCombo::getTotalPrice).reversed());
+            combinations.sort(ComboPricingService.BY_PRICE_DESCENDING);
         } else if ("asc".equalsIgnoreCase(request.getSortOrder())) {
-            combinations.sort(Comparator.comparingDouble(StickerCombo::getTotalPrice));
+            combinations.sort(ComboPricingService.BY_PRICE_ASCENDING);
         }
         
-        return ResponseEntity.ok(combinations);
+        if (limit != null && combinations.size() > limit) {
+            combinations = new ArrayList<>(combinations.subList(0, limit));
+        }
+        return combinations;
+    }
+
+    /**
+     * Streaming variant of /generate: combinations as they are found, then price updates as they
+     * resolve, as NDJSON or Server-Sent Events depending on the Accept header
+     */
+    @PostMapping(value = "/generate/stream",
+                 produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ComboStreamEvent> streamStickerCombinations(@Valid @RequestBody NameRequest request) {
+        int maxStickers = request.getMaxStickers() != null ? request.getMaxStickers() : Integer.MAX_VALUE;
+        return comboStreamService.streamCombinations(request.getName(), maxStickers, request.isExpandVariants(),
+            "stream-" + requestIds.incrementAndGet());
+    }
+    
+    /**
+     * Many names in one call: one result per name, streamed as soon as its prices resolve, with
+     * each distinct sticker of the batch looked up once
+     */
+    @PostMapping(value = "/generate/batch",
+                 produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<BatchNameResult> generateBatch(@Valid @RequestBody BatchNameRequest request) {
+        int maxStickers = request.getMaxStickers() != null ? request.getMaxStickers() : Integer.MAX_VALUE;
+        return batchGenerationService.generateBatch(request.getNames(), maxStickers, request.isExpandVariants(),
+            request.getSortOrder(), request.getLimit(), "batch-" + requestIds.incrementAndGet());
+    }
+    
+    /**
+     * GET form of the stream, usable from an EventSource
+     */
+    @GetMapping(value = "/search/stream",
+                produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ComboStreamEvent> streamSearch(@Valid @ModelAttribute NameRequest request) {
+        return streamStickerCombinations(request);
+    }
+
+    /**
+     * The cheapest ways to spell a name, at most k of them, without generating every combination
+     */
+    @GetMapping("/cheapest")
+    public ResponseEntity<List<StickerCombo>> cheapestSpellings(
+            @RequestParam @NotBlank @Size(max = 20) String name,
+            @RequestParam(defaultValue = "1") @Min(1) @Max(100) int k,
+            @RequestParam(required = false) @Min(1) @Max(5) Integer maxStickers) {
+        
+        return ResponseEntity.ok(comboPricingService.cheapestSpellings(name.trim(),
+            maxStickers != null ? maxStickers : Integer.MAX_VALUE, k, "cheapest-" + requestIds.incrementAndGet()));
     }
 
     @GetMapping("/debug/{name}")
-    public ResponseEntity<Object> debugStickers(@PathVariable String name) {
+    public ResponseEntity<Object> debugStickers(@PathVariable @NotBlank @Size(max = 20) String name) {
     List<StickerCombo> combinations = nameGeneratorService.generateNameCombinations(name);
     
     Map<String, Object> debug = new HashMap<>();
@@ -68,12 +160,11 @@ public class StickerController {
     return ResponseEntity.ok(debug);
 }
     
+    /**
+     * GET form of /generate; query parameters bind to the same validated NameRequest
+     */
     @GetMapping("/search")
-    public ResponseEntity<List<StickerCombo>> searchStickers(
-            @RequestParam String name,
-            @RequestParam(defaultValue = "asc") String sortOrder) {
-        
-        NameRequest request = new NameRequest(name, sortOrder);
+    public ResponseEntity<List<StickerCombo>> searchStickers(@Valid @ModelAttribute NameRequest request) {
         return generateStickerCombinations(request);
     }
     
@@ -100,6 +191,38 @@ public class StickerController {
         }
     }
     
+    @GetMapping("/debug/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("combinations", nameGeneratorService.getCacheStats());
+        response.put("priceCacheSize", steamMarketService.getCacheSize());
+        response.put("priceFetches", steamMarketService.getFetchStats());
+        response.put("priceProvider", steamMarketService.getProviderStats());
+        response.put("priceRefresh", steamMarketService.getRefreshStats());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Starts warming the price cache for the whole catalog through batched search-page requests,
+     * behind every user lookup; progress shows up under priceProvider in /debug/cache.
+     * 409 while a previous warm-up is still running.
+     */
+    @PostMapping("/prices/warm")
+    public ResponseEntity<Map<String, Object>> warmPrices() {
+        StickerCatalog catalog = stickerService.getCatalog();
+        List<String> fullNames = new ArrayList<>(catalog.size());
+        for (int id = 0; id < catalog.size(); id++) {
+            fullNames.add(catalog.getFullName(id));
+        }
+        if (!steamMarketService.warmPrices(fullNames)) {
+            return ResponseEntity.status(409).build();
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("stickers", fullNames.size());
+        return ResponseEntity.accepted().body(response);
+    }
+    
     @GetMapping("/debug/test-overlap")
     public ResponseEntity<Map<String, Object>> testOverlap() {
         try {
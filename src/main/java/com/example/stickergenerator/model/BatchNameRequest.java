@@ -0,0 +1,45 @@
+package com.example.stickergenerator.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchNameRequest {
+    @NotEmpty(message = "At least one name is needed")
+    @Size(max = 1000, message = "At most 1000 names per batch")
+    private List<@NotBlank(message = "Name cannot be empty")
+                 @Size(max = 20, message = "Name must be between 1 and 20 characters") String> names;
+    
+    private String sortOrder = "asc"; // "asc" or "desc"
+    
+    @Min(value = 1, message = "At least one sticker is needed")
+    @Max(value = 5, message = "At most 5 stickers can be combined")
+    private Integer maxStickers; // null = generator.max-stickers
+    
+    private boolean expandVariants = false; // list every rarity variant instead of one combo per spelling
+    
+    @Min(value = 1, message = "Limit must be at least 1")
+    private Integer limit; // per name; null = return every combination
+    
+    public BatchNameRequest() {}
+    
+    // Getters and setters
+    public List<String> getNames() { return names; }
+    public void setNames(List<String> names) { this.names = names; }
+    
+    public String getSortOrder() { return sortOrder; }
+    public void setSortOrder(String sortOrder) { this.sortOrder = sortOrder; }
+    
+    public Integer getMaxStickers() { return maxStickers; }
+    public void setMaxStickers(Integer maxStickers) { this.maxStickers = maxStickers; }
+    
+    public boolean isExpandVariants() { return expandVariants; }
+    public void setExpandVariants(boolean expandVariants) { this.expandVariants = expandVariants; }
+    
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+}
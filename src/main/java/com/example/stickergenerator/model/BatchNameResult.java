@@ -0,0 +1,35 @@
+package com.example.stickergenerator.model;
+
+import java.util.List;
+
+/**
+ * One line of the batch endpoint: the priced combinations for one of the requested names
+ */
+public class BatchNameResult {
+    private String name;
+    private List<StickerCombo> combinations;
+    private String error; // set instead of combinations when generation failed for this name
+    
+    public BatchNameResult() {}
+    
+    public BatchNameResult(String name, List<StickerCombo> combinations) {
+        this.name = name;
+        this.combinations = combinations;
+    }
+    
+    public static BatchNameResult failed(String name, String error) {
+        BatchNameResult result = new BatchNameResult(name, List.of());
+        result.error = error;
+        return result;
+    }
+    
+    // Getters and setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public List<StickerCombo> getCombinations() { return combinations; }
+    public void setCombinations(List<StickerCombo> combinations) { this.combinations = combinations; }
+    
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,52 @@
+package com.example.stickergenerator.model;
+
+/**
+ * One message of the streaming generate endpoint: a newly found combination, a resolved
+ * price for one sticker (applies to every combination containing it), or the end marker.
+ */
+public class ComboStreamEvent {
+    public static final String COMBO = "combo";
+    public static final String PRICE = "price";
+    public static final String DONE = "done";
+
+    private String type;
+    private Integer index; // position of the combination in generation order
+    private StickerCombo combo;
+    private StickerPrice price;
+
+    public ComboStreamEvent() {}
+
+    public static ComboStreamEvent combo(int index, StickerCombo combo) {
+        ComboStreamEvent event = new ComboStreamEvent();
+        event.type = COMBO;
+        event.index = index;
+        event.combo = combo;
+        return event;
+    }
+
+    public static ComboStreamEvent price(StickerPrice price) {
+        ComboStreamEvent event = new ComboStreamEvent();
+        event.type = PRICE;
+        event.price = price;
+        return event;
+    }
+
+    public static ComboStreamEvent done() {
+        ComboStreamEvent event = new ComboStreamEvent();
+        event.type = DONE;
+        return event;
+    }
+
+    // Getters and setters
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Integer getIndex() { return index; }
+    public void setIndex(Integer index) { this.index = index; }
+
+    public StickerCombo getCombo() { return combo; }
+    public void setCombo(StickerCombo combo) { this.combo = combo; }
+
+    public StickerPrice getPrice() { return price; }
+    public void setPrice(StickerPrice price) { this.price = price; }
+}
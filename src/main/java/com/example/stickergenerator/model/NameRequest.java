@@ -1,5 +1,7 @@
 package com.example.stickergenerator.model;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
@@ -10,6 +12,17 @@ public class NameRequest {
     
     private String sortOrder = "asc"; // "asc" or "desc"
     
+    @Min(value = 1, message = "At least one sticker is needed")
+    @Max(value = 5, message = "At most 5 stickers can be combined")
+    private Integer maxStickers; // null = generator.max-stickers
+    
+    private boolean expandVariants = false; // list every rarity variant instead of one combo per spelling
+    
+    @Min(value = 1, message = "Limit must be at least 1")
+    private Integer limit; // null = return every combination
+    
+    private boolean fuzzy = false; // also suggest near-miss spellings (up to generator.fuzzy.max-distance edits)
+    
     public NameRequest() {}
     
     public NameRequest(String name, String sortOrder) {
@@ -23,4 +36,16 @@ public class NameRequest {
     
     public String getSortOrder() { return sortOrder; }
     public void setSortOrder(String sortOrder) { this.sortOrder = sortOrder; }
+    
+    public Integer getMaxStickers() { return maxStickers; }
+    public void setMaxStickers(Integer maxStickers) { this.maxStickers = maxStickers; }
+    
+    public boolean isExpandVariants() { return expandVariants; }
+    public void setExpandVariants(boolean expandVariants) { this.expandVariants = expandVariants; }
+    
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+    
+    public boolean isFuzzy() { return fuzzy; }
+    public void setFuzzy(boolean fuzzy) { this.fuzzy = fuzzy; }
 }
@@ -7,6 +7,10 @@ public class StickerCombo {
     private List<Sticker> stickers;
     private List<StickerPrice> prices;
     private double totalPrice;
+    private long variantCount = 1; // rarity combinations this spelling stands for
+    private boolean pricePending; // some prices missed the deadline, totalPrice covers the rest
+    private String spelling; // near-miss suggestions only: what the stickers actually spell
+    private Integer editDistance; // near-miss suggestions only: edits between spelling and targetName
     
     public StickerCombo() {}
     
@@ -27,4 +31,16 @@ public class StickerCombo {
     
     public double getTotalPrice() { return totalPrice; }
     public void setTotalPrice(double totalPrice) { this.totalPrice = totalPrice; }
+    
+    public long getVariantCount() { return variantCount; }
+    public void setVariantCount(long variantCount) { this.variantCount = variantCount; }
+    
+    public boolean isPricePending() { return pricePending; }
+    public void setPricePending(boolean pricePending) { this.pricePending = pricePending; }
+    
+    public String getSpelling() { return spelling; }
+    public void setSpelling(String spelling) { this.spelling = spelling; }
+    
+    public Integer getEditDistance() { return editDistance; }
+    public void setEditDistance(Integer editDistance) { this.editDistance = editDistance; }
 }
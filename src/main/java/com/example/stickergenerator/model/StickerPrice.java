@@ -5,6 +5,7 @@ public class StickerPrice {
     private double price;
     private String currency;
     private String marketUrl;
+    private boolean pending; // lookup still running when the response was built
     
     public StickerPrice() {}
     
@@ -27,4 +28,7 @@ public class StickerPrice {
     
     public String getMarketUrl() { return marketUrl; }
     public void setMarketUrl(String marketUrl) { this.marketUrl = marketUrl; }
+    
+    public boolean isPending() { return pending; }
+    public void setPending(boolean pending) { this.pending = pending; }
 }
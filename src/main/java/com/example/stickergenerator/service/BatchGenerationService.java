@@ -0,0 +1,116 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.BatchNameResult;
+import com.example.stickergenerator.model.StickerCombo;
+import com.example.stickergenerator.model.StickerPrice;
+import com.example.stickergenerator.tracing.RequestTrace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates and prices combinations for many names at once. Generation runs in parallel across
+ * cores, every distinct sticker in the batch is looked up once however many names use it, and
+ * each name is streamed back as soon as its own prices have resolved.
+ */
+@Service
+public class BatchGenerationService {
+    private static final Logger log = LoggerFactory.getLogger(BatchGenerationService.class);
+
+    private final NameGeneratorService nameGeneratorService;
+    private final ComboPricingService comboPricingService;
+    private final long deadlineMillis;
+
+    public BatchGenerationService(NameGeneratorService nameGeneratorService,
+                                  ComboPricingService comboPricingService,
+                                  @Value("${price.batch.deadline-ms:60000}") long deadlineMillis) {
+        this.nameGeneratorService = nameGeneratorService;
+        this.comboPricingService = comboPricingService;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    public Flux<BatchNameResult> generateBatch(List<String> names, int maxStickers, boolean expandVariants,
+                                               String sortOrder, Integer limit, String requester) {
+        // Names differing only in case or surrounding spaces share their work, but every
+        // result carries the name as sent so callers can match it to their input
+        Map<String, Set<String>> distinct = new LinkedHashMap<>();
+        for (String name : names) {
+            distinct.computeIfAbsent(name.trim().toLowerCase(), key -> new LinkedHashSet<>()).add(name);
+        }
+
+        // One deadline and one set of lookups for the whole batch
+        long deadlineAt = System.currentTimeMillis() + deadlineMillis;
+        Map<String, CompletableFuture<StickerPrice>> lookups = new ConcurrentHashMap<>();
+        log.debug("📦 Batch of {} names for {}", distinct.size(), requester);
+        // Generation and pricing run on other threads; they report to the trace of this request
+        RequestTrace trace = RequestTrace.current();
+
+        return Flux.fromIterable(distinct.entrySet())
+            .flatMap(group -> generateAndPrice(group.getKey(), maxStickers, expandVariants, sortOrder, limit,
+                    requester, lookups, deadlineAt, trace)
+                .flatMapIterable(result -> group.getValue().stream()
+                    .map(sent -> result.getError() != null
+                        ? BatchNameResult.failed(sent, result.getError())
+                        : new BatchNameResult(sent, result.getCombinations()))
+                    .toList()))
+            .doOnComplete(() -> log.debug("📦 Batch for {} looked up {} distinct stickers", requester, lookups.size()));
+    }
+
+    /**
+     * Generates and prices one normalized name; failures become a result carrying the error
+     */
+    private Mono<BatchNameResult> generateAndPrice(String name, int maxStickers, boolean expandVariants,
+                                                   String sortOrder, Integer limit, String requester,
+                                                   Map<String, CompletableFuture<StickerPrice>> lookups,
+                                                   long deadlineAt, RequestTrace trace) {
+        return Mono.fromCallable(() -> {
+                try (RequestTrace.Scope scope = trace.activate()) {
+                    return unsortedLimit(nameGeneratorService.generateNameCombinations(
+                        name, maxStickers, expandVariants), sortOrder, limit);
+                }
+            })
+            // CPU-bound, so one worker per core
+            .subscribeOn(Schedulers.parallel())
+            .flatMap(combinations -> Mono.fromFuture(() -> {
+                try (RequestTrace.Scope scope = trace.activate()) {
+                    return comboPricingService.priceCombinationsAsync(combinations, lookups, requester, deadlineAt);
+                }
+            }))
+            .map(priced -> new BatchNameResult(name, sortAndLimit(priced, sortOrder, limit)))
+            .onErrorResume(e -> {
+                log.warn("❌ Batch generation failed for '{}': {}", name, e.getMessage());
+                return Mono.just(BatchNameResult.failed(name, e.getMessage()));
+            });
+    }
+
+    /**
+     * Unsorted results keep generation order, so the tail past the limit is never priced
+     */
+    private static List<StickerCombo> unsortedLimit(List<StickerCombo> combinations, String sortOrder, Integer limit) {
+        boolean sorted = "asc".equalsIgnoreCase(sortOrder) || "desc".equalsIgnoreCase(sortOrder);
+        if (limit != null && !sorted && combinations.size() > limit) {
+            return new ArrayList<>(combinations.subList(0, limit));
+        }
+        return combinations;
+    }
+
+    private static List<StickerCombo> sortAndLimit(List<StickerCombo> combinations, String sortOrder, Integer limit) {
+        if ("desc".equalsIgnoreCase(sortOrder)) {
+            combinations.sort(ComboPricingService.BY_PRICE_DESCENDING);
+        } else if ("asc".equalsIgnoreCase(sortOrder)) {
+            combinations.sort(ComboPricingService.BY_PRICE_ASCENDING);
+        }
+        if (limit != null && combinations.size() > limit) {
+            return new ArrayList<>(combinations.subList(0, limit));
+        }
+        return combinations;
+    }
+}
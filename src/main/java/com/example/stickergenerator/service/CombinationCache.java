@@ -0,0 +1,119 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.StickerCombo;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of generated combinations with a time-to-live. Keys carry the catalog
+ * version, and the whole cache is dropped the first time a newer catalog is seen, so stale
+ * results are never served after the sticker list changes. Callers get fresh StickerCombo
+ * copies because the controller sets prices and sorts the lists it receives.
+ */
+public class CombinationCache {
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<Key, Entry> entries;
+    private long catalogVersion = -1;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public record Key(long catalogVersion, String name, int maxStickers, boolean expandVariants) {}
+
+    private record Entry(List<StickerCombo> combos, long expiresAt) {}
+
+    public CombinationCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                boolean evict = size() > CombinationCache.this.maxEntries;
+                if (evict) evictions.increment();
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Returns a copy of the cached combinations, or null on a miss
+     */
+    public List<StickerCombo> get(Key key) {
+        Entry entry;
+        synchronized (this) {
+            invalidateIfOutdated(key.catalogVersion());
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt() < System.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copy(entry.combos());
+    }
+
+    public void put(Key key, List<StickerCombo> combos) {
+        if (maxEntries <= 0) return;
+        Entry entry = new Entry(copy(combos), System.currentTimeMillis() + ttlMillis);
+        synchronized (this) {
+            invalidateIfOutdated(key.catalogVersion());
+            if (key.catalogVersion() == catalogVersion) {
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    private void invalidateIfOutdated(long version) {
+        if (version > catalogVersion) {
+            entries.clear();
+            catalogVersion = version;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static List<StickerCombo> copy(List<StickerCombo> combos) {
+        List<StickerCombo> copies = new ArrayList<>(combos.size());
+        for (StickerCombo combo : combos) {
+            StickerCombo copy = new StickerCombo(combo.getTargetName(), combo.getStickers());
+            copy.setVariantCount(combo.getVariantCount());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Hit/miss counters and occupancy, for sizing the cache
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        return stats;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.Sticker;
+import com.example.stickergenerator.model.StickerCombo;
+import com.example.stickergenerator.model.StickerPrice;
+import com.example.stickergenerator.tracing.RequestTrace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Prices the combinations of one request in a single pass. Every distinct sticker is looked up
+ * once, all lookups run concurrently, and the response waits for them only up to a deadline;
+ * stickers still being fetched then are marked pending and keep loading into the cache.
+ */
+@Service
+public class ComboPricingService {
+    private static final Logger log = LoggerFactory.getLogger(ComboPricingService.class);
+
+    /**
+     * Orders by total price, cheapest first, with combos still waiting on a price last: their
+     * totals only cover the prices that resolved, so they must not pass for the cheapest
+     */
+    public static final Comparator<StickerCombo> BY_PRICE_ASCENDING =
+        Comparator.comparing(StickerCombo::isPricePending).thenComparingDouble(StickerCombo::getTotalPrice);
+
+    /**
+     * Most expensive first, combos still waiting on a price last
+     */
+    public static final Comparator<StickerCombo> BY_PRICE_DESCENDING =
+        Comparator.comparing(StickerCombo::isPricePending)
+            .thenComparing(Comparator.comparingDouble(StickerCombo::getTotalPrice).reversed());
+
+    private final SteamMarketService steamMarketService;
+    private final NameGeneratorService nameGeneratorService;
+    private final long deadlineMillis;
+    private final double unknownPrice;
+
+    public ComboPricingService(SteamMarketService steamMarketService,
+                               NameGeneratorService nameGeneratorService,
+                               @Value("${price.resolve.deadline-ms:5000}") long deadlineMillis,
+                               @Value("${price.cheapest.unknown-price:0.10}") double unknownPrice) {
+        this.steamMarketService = steamMarketService;
+        this.nameGeneratorService = nameGeneratorService;
+        this.deadlineMillis = deadlineMillis;
+        this.unknownPrice = unknownPrice;
+    }
+
+    /**
+     * Sets prices and totals on every combination; totals only count resolved prices, so sort
+     * with BY_PRICE_ASCENDING or BY_PRICE_DESCENDING rather than by total alone
+     */
+    public void priceCombinations(List<StickerCombo> combinations, String requester) {
+        priceCombinations(combinations, requester, System.currentTimeMillis() + deadlineMillis);
+    }
+
+    private void priceCombinations(List<StickerCombo> combinations, String requester, long deadlineAt) {
+        try (RequestTrace.Span span = RequestTrace.start("price-resolve").tag("combinations", combinations.size())) {
+            Map<String, CompletableFuture<StickerPrice>> lookups = startLookups(combinations, new LinkedHashMap<>(), requester);
+            span.tag("stickers", lookups.size());
+            awaitUntil(lookups.values(), deadlineAt);
+            applyPrices(combinations, lookups);
+        }
+    }
+
+    /**
+     * Non-blocking form for work spanning several requests' worth of combinations: lookups go
+     * through the shared map, so a sticker is looked up once however many callers need it, and
+     * the returned future completes once they resolve or at the given deadline, whichever is first
+     */
+    public CompletableFuture<List<StickerCombo>> priceCombinationsAsync(
+            List<StickerCombo> combinations, Map<String, CompletableFuture<StickerPrice>> sharedLookups,
+            String requester, long deadlineAt) {
+        RequestTrace.Span span = RequestTrace.start("price-resolve").tag("combinations", combinations.size());
+        Map<String, CompletableFuture<StickerPrice>> lookups = startLookups(combinations, sharedLookups, requester);
+        span.tag("stickers", lookups.size());
+        long remaining = Math.max(0, deadlineAt - System.currentTimeMillis());
+        return CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture[0]))
+            .exceptionally(e -> null)
+            .completeOnTimeout(null, remaining, TimeUnit.MILLISECONDS)
+            .thenApply(done -> {
+                applyPrices(combinations, lookups);
+                span.close();
+                return combinations;
+            });
+    }
+
+    /**
+     * Lookups for the distinct stickers of the combinations, started through the given map
+     */
+    private Map<String, CompletableFuture<StickerPrice>> startLookups(
+            List<StickerCombo> combinations, Map<String, CompletableFuture<StickerPrice>> started, String requester) {
+        Map<String, CompletableFuture<StickerPrice>> lookups = new LinkedHashMap<>();
+        for (StickerCombo combo : combinations) {
+            for (Sticker sticker : combo.getStickers()) {
+                lookups.computeIfAbsent(sticker.getFullName(), name ->
+                    started.computeIfAbsent(name, key -> steamMarketService.getStickerPrice(key, requester)));
+            }
+        }
+        return lookups;
+    }
+
+    private static void applyPrices(List<StickerCombo> combinations, Map<String, CompletableFuture<StickerPrice>> lookups) {
+        Map<String, StickerPrice> resolved = new HashMap<>(lookups.size() * 2);
+        lookups.forEach((name, lookup) -> resolved.put(name, resultOrPending(name, lookup)));
+
+        for (StickerCombo combo : combinations) {
+            // Keep prices in same order as stickers to maintain correlation
+            List<StickerPrice> prices = new ArrayList<>(combo.getStickers().size());
+            double total = 0;
+            boolean pending = false;
+            for (Sticker sticker : combo.getStickers()) {
+                StickerPrice price = resolved.get(sticker.getFullName());
+                prices.add(price);
+                total += price.getPrice();
+                pending |= price.isPending();
+            }
+            combo.setPrices(prices);
+            combo.setTotalPrice(total);
+            combo.setPricePending(pending);
+        }
+    }
+
+    /**
+     * The cheapest combinations, at most limit of them, priced and sorted ascending. Candidates
+     * are visited by an estimate of their total (known prices; for stickers never fetched the
+     * cheapest known one, at most price.cheapest.unknown-price) and priced live a round at a time; once the next candidate's
+     * estimate cannot beat the limit-th cheapest total found so far, the rest are never priced.
+     * All rounds share one price.resolve.deadline-ms. Combos still pending at the deadline only
+     * fill the places fully priced ones leave, after them, as their totals are incomplete.
+     */
+    public List<StickerCombo> cheapestCombinations(List<StickerCombo> combinations, int limit, String requester) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1, was " + limit);
+        }
+        long deadlineAt = System.currentTimeMillis() + deadlineMillis;
+        Map<String, Double> known = new HashMap<>();
+        double cheapestKnown = unknownPrice;
+        for (StickerCombo combo : combinations) {
+            for (Sticker sticker : combo.getStickers()) {
+                double price = known.computeIfAbsent(sticker.getFullName(), steamMarketService::getKnownPrice);
+                if (price > 0) cheapestKnown = Math.min(cheapestKnown, price);
+            }
+        }
+        double[] bounds = new double[combinations.size()];
+        Integer[] order = new Integer[combinations.size()];
+        for (int i = 0; i < combinations.size(); i++) {
+            for (Sticker sticker : combinations.get(i).getStickers()) {
+                double price = known.get(sticker.getFullName());
+                bounds[i] += price > 0 ? price : cheapestKnown;
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> bounds[i]));
+
+        // Max-heap of the best fully priced totals so far; its head is the one to beat
+        PriorityQueue<StickerCombo> best = new PriorityQueue<>(
+            Comparator.comparingDouble(StickerCombo::getTotalPrice).reversed());
+        List<StickerCombo> pending = new ArrayList<>();
+        int next = 0;
+        while (next < order.length && System.currentTimeMillis() < deadlineAt) {
+            List<StickerCombo> round = new ArrayList<>(limit);
+            while (next < order.length && round.size() < limit && couldMakeTop(bounds[order[next]], best, limit)) {
+                round.add(combinations.get(order[next++]));
+            }
+            if (round.isEmpty()) break;
+
+            priceCombinations(round, requester, deadlineAt);
+            for (StickerCombo combo : round) {
+                if (combo.isPricePending()) {
+                    pending.add(combo);
+                    continue;
+                }
+                best.add(combo);
+                if (best.size() > limit) best.poll();
+            }
+        }
+        log.debug("🏁 Priced {} of {} combinations for the {} cheapest ({} pending)",
+            next, combinations.size(), limit, pending.size());
+
+        List<StickerCombo> cheapest = new ArrayList<>(best);
+        cheapest.sort(BY_PRICE_ASCENDING);
+        pending.sort(BY_PRICE_ASCENDING);
+        for (int i = 0; i < pending.size() && cheapest.size() < limit; i++) {
+            cheapest.add(pending.get(i));
+        }
+        return cheapest;
+    }
+
+    /**
+     * The count cheapest spellings of the name, found by a shortest-path search weighted by the
+     * prices already known (unknownPrice for stickers never fetched), then priced live and sorted
+     * ascending. Unlike cheapestCombinations this never generates the full list of combinations.
+     */
+    public List<StickerCombo> cheapestSpellings(String targetName, int maxStickers, int count, String requester) {
+        List<StickerCombo> cheapest = nameGeneratorService.findCheapestSpellings(targetName, maxStickers, count,
+            name -> {
+                double known = steamMarketService.getKnownPrice(name);
+                return known > 0 ? known : unknownPrice;
+            });
+        priceCombinations(cheapest, requester);
+        cheapest.sort(BY_PRICE_ASCENDING);
+        return cheapest;
+    }
+
+    private static boolean couldMakeTop(double lowerBound, PriorityQueue<StickerCombo> best, int limit) {
+        return best.size() < limit || lowerBound < best.peek().getTotalPrice();
+    }
+
+    private void awaitUntil(Collection<CompletableFuture<StickerPrice>> lookups, long deadlineAt) {
+        try {
+            CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0]))
+                .get(Math.max(0, deadlineAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Whatever finished in time is used, the rest is reported as pending
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static StickerPrice resultOrPending(String stickerName, CompletableFuture<StickerPrice> lookup) {
+        if (lookup.isDone() && !lookup.isCompletedExceptionally()) {
+            return lookup.join();
+        }
+        StickerPrice pending = new StickerPrice(stickerName, 0.0, "USD", SteamMarketService.getMarketUrl(stickerName));
+        pending.setPending(true);
+        return pending;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.ComboStreamEvent;
+import com.example.stickergenerator.model.Sticker;
+import com.example.stickergenerator.tracing.RequestTrace;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+/**
+ * Streams the results of a generate request: each combination as soon as the generator finds
+ * it, then one price event per distinct sticker as its lookup resolves, then a done marker.
+ * Lookups start while generation is still running and each sticker is looked up once.
+ * Combinations are buffered rather than produced on demand: the generator runs to completion
+ * under its time budget and holds the whole list anyway, so a slow client only delays writes,
+ * never generation, and the buffer never holds more than that list.
+ */
+@Service
+public class ComboStreamService {
+    private final NameGeneratorService nameGeneratorService;
+    private final SteamMarketService steamMarketService;
+    private final long priceTimeoutMillis;
+
+    public ComboStreamService(NameGeneratorService nameGeneratorService,
+                              SteamMarketService steamMarketService,
+                              @Value("${price.stream.timeout-ms:25000}") long priceTimeoutMillis) {
+        this.nameGeneratorService = nameGeneratorService;
+        this.steamMarketService = steamMarketService;
+        this.priceTimeoutMillis = priceTimeoutMillis;
+    }
+
+    public Flux<ComboStreamEvent> streamCombinations(String targetName, int maxStickers, boolean expandVariants,
+                                                     String requester) {
+        RequestTrace trace = RequestTrace.current();
+        Flux<ComboStreamEvent> combos = Flux.<ComboStreamEvent>create(sink -> {
+            int[] index = {0};
+            try (RequestTrace.Scope scope = trace.activate()) {
+                nameGeneratorService.generateNameCombinations(targetName, maxStickers, expandVariants,
+                    combo -> sink.next(ComboStreamEvent.combo(index[0]++, combo)));
+                sink.complete();
+            } catch (RuntimeException e) {
+                sink.error(e);
+            }
+        }, FluxSink.OverflowStrategy.BUFFER).subscribeOn(Schedulers.boundedElastic());
+
+        return combos.publish(found -> Flux.merge(
+                found,
+                found.concatMapIterable(event -> event.getCombo().getStickers())
+                    .map(Sticker::getFullName)
+                    .distinct()
+                    .flatMap(name -> Mono.fromFuture(() -> {
+                        try (RequestTrace.Scope scope = trace.activate()) {
+                            return steamMarketService.getStickerPrice(name, requester);
+                        }
+                    }))
+                    .map(ComboStreamEvent::price)
+                    // Lookups still running then keep filling the cache; the client shows them as pending
+                    .take(Duration.ofMillis(priceTimeoutMillis))))
+            .concatWith(Mono.just(ComboStreamEvent.done()));
+    }
+}
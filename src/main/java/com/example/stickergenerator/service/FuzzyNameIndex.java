@@ -0,0 +1,287 @@
+package com.example.stickergenerator.service;
+
+import java.util.*;
+
+/**
+ * Trie over the distinct lowercased names of a StickerCatalog, for spellings that come close
+ * to a target without matching it. The search walks the trie while updating one row of the
+ * Levenshtein matrix against the target per character, so a branch is dropped as soon as every
+ * cell of its row exceeds the allowed distance; only names that can still end up near the
+ * target are ever visited. Stickers are placed whole or cut at the end, as in the exact search;
+ * cuts at the front are not considered here.
+ */
+public class FuzzyNameIndex {
+    private static final int ROOT = 0;
+    // Distance of an alignment that does not exist, kept far from overflow
+    private static final int UNREACHABLE = Integer.MAX_VALUE / 2;
+
+    private final StickerCatalog catalog;
+
+    // Trie nodes: first child and next sibling links, the character leading into the node,
+    // the name spelled by the path to it (-1 if none), one longer name passing through it
+    // and the number of characters below it on the longest path
+    private int[] firstChild;
+    private int[] nextSibling;
+    private char[] label;
+    private int[] nameAt;
+    private int[] passingName;
+    private final int[] height;
+    private int nodes;
+
+    /**
+     * A spelling within reach of the target: the names used, how many characters of each
+     * (shorter than the name when it is cut at the end), the text it spells and its distance
+     */
+    public record NearMiss(int[] nameIds, int[] usedLengths, String spelling, int distance) {}
+
+    FuzzyNameIndex(StickerCatalog catalog) {
+        this.catalog = catalog;
+
+        int capacity = 1;
+        for (int nameId = 0; nameId < catalog.getNameCount(); nameId++) {
+            capacity += catalog.getNameLength(nameId);
+        }
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        label = new char[capacity];
+        nameAt = new int[capacity];
+        passingName = new int[capacity];
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+        Arrays.fill(nameAt, -1);
+        Arrays.fill(passingName, -1);
+        nodes = 1;
+
+        char[] buffer = catalog.getNameBuffer();
+        for (int nameId = 0; nameId < catalog.getNameCount(); nameId++) {
+            int start = catalog.getNameStart(nameId);
+            int length = catalog.getNameLength(nameId);
+            int node = ROOT;
+            for (int i = 0; i < length; i++) {
+                node = child(node, buffer[start + i]);
+                if (i < length - 1 && passingName[node] < 0) {
+                    passingName[node] = nameId;
+                }
+            }
+            nameAt[node] = nameId;
+        }
+
+        firstChild = Arrays.copyOf(firstChild, nodes);
+        nextSibling = Arrays.copyOf(nextSibling, nodes);
+        label = Arrays.copyOf(label, nodes);
+        nameAt = Arrays.copyOf(nameAt, nodes);
+        passingName = Arrays.copyOf(passingName, nodes);
+
+        // Children are always created after their parent
+        height = new int[nodes];
+        for (int node = nodes - 1; node >= 0; node--) {
+            for (int next = firstChild[node]; next >= 0; next = nextSibling[next]) {
+                height[node] = Math.max(height[node], height[next] + 1);
+            }
+        }
+    }
+
+    private int child(int node, char c) {
+        for (int next = firstChild[node]; next >= 0; next = nextSibling[next]) {
+            if (label[next] == c) return next;
+        }
+        int created = nodes++;
+        label[created] = c;
+        nextSibling[created] = firstChild[node];
+        firstChild[node] = created;
+        return created;
+    }
+
+    /**
+     * Spellings of at most maxStickers stickers within 1..maxDistance edits of the (lowercased)
+     * target, closest first, then fewest stickers. Exact spellings are left to the regular search.
+     */
+    public List<NearMiss> findNearMisses(char[] target, int maxDistance, int maxStickers, int maxResults,
+                                         long deadline) {
+        List<NearMiss> found = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        int[] start = new int[target.length + 1];
+        for (int j = 0; j <= target.length; j++) {
+            start[j] = j;
+        }
+        // Closest and shortest first, so the result cap never crowds out a better suggestion
+        for (int distance = 1; distance <= maxDistance && found.size() < maxResults; distance++) {
+            for (int stickers = 1; stickers <= maxStickers && found.size() < maxResults; stickers++) {
+                if (System.nanoTime() > deadline) break;
+                Search search = new Search(target, distance, stickers, maxResults, deadline, found, seen);
+                search.walk(ROOT, start, search.unmatched, 0, 0);
+            }
+        }
+        found.sort(Comparator.comparingInt(NearMiss::distance).thenComparingInt(miss -> miss.nameIds().length));
+        return found;
+    }
+
+    private static int distance(String spelling, char[] target) {
+        int[] row = new int[target.length + 1];
+        for (int j = 0; j <= target.length; j++) {
+            row[j] = j;
+        }
+        for (int i = 0; i < spelling.length(); i++) {
+            int diagonal = row[0];
+            row[0] = i + 1;
+            for (int j = 1; j <= target.length; j++) {
+                int above = row[j];
+                row[j] = Math.min(diagonal + (spelling.charAt(i) == target[j - 1] ? 0 : 1),
+                    Math.min(above + 1, row[j - 1] + 1));
+                diagonal = above;
+            }
+        }
+        return row[target.length];
+    }
+
+    private final class Search {
+        private final char[] target;
+        private final int maxDistance;
+        private final int stickers;
+        private final int maxResults;
+        private final long deadline;
+        private final List<NearMiss> found;
+        private final Set<String> seen;
+
+        // Sticker boundaries that led nowhere: many paths spell prefixes that end in the same state
+        private final Set<String> dead = new HashSet<>();
+        private int accepted;
+        private int blocked;
+
+        // Current path: placed names and lengths, and the characters spelled so far
+        private final int[] names;
+        private final int[] lengths;
+        private final StringBuilder spelled = new StringBuilder();
+
+        // Rows after each spelled length, reused across branches; a path spelling more than
+        // maxDistance characters beyond the target is out of reach
+        private final int[][] rows;
+        private final int[][] matchedRows;
+        private final int[] unmatched;
+
+        private Search(char[] target, int maxDistance, int stickers, int maxResults, long deadline,
+                       List<NearMiss> found, Set<String> seen) {
+            this.target = target;
+            this.maxDistance = maxDistance;
+            this.stickers = stickers;
+            this.maxResults = maxResults;
+            this.deadline = deadline;
+            this.found = found;
+            this.seen = seen;
+            this.names = new int[stickers];
+            this.lengths = new int[stickers];
+            this.rows = new int[target.length + maxDistance + 1][target.length + 1];
+            this.matchedRows = new int[target.length + maxDistance + 1][target.length + 1];
+            this.unmatched = new int[target.length + 1];
+            Arrays.fill(unmatched, UNREACHABLE);
+        }
+
+        /**
+         * Extends the sticker being placed (the placed-th) from the given trie node; depth is how
+         * many of its characters are already spelled. row holds the distances to each target prefix,
+         * matched the same over only those alignments where this sticker matches at least one
+         * character: a sticker made up purely of edits is never worth suggesting.
+         */
+        private void walk(int node, int[] row, int[] matched, int placed, int depth) {
+            int spelledLength = spelled.length() + 1;
+            if (spelledLength >= rows.length) return;
+            int[] nextRow = rows[spelledLength];
+            int[] nextMatched = matchedRows[spelledLength];
+            boolean last = placed + 1 == stickers;
+
+            for (int next = firstChild[node]; next >= 0; next = nextSibling[next]) {
+                if (found.size() >= maxResults || System.nanoTime() > deadline) return;
+
+                char c = label[next];
+                nextRow[0] = row[0] + 1;
+                nextMatched[0] = matched[0] + 1;
+                // The last sticker also has to get to the end of the target within its longest path
+                int bound = nextRow[0] + (last ? Math.max(0, target.length - height[next]) : 0);
+                for (int j = 1; j < row.length; j++) {
+                    boolean same = target[j - 1] == c;
+                    nextRow[j] = Math.min(row[j - 1] + (same ? 0 : 1), Math.min(row[j] + 1, nextRow[j - 1] + 1));
+                    nextMatched[j] = Math.min(same ? row[j - 1] : matched[j - 1] + 1,
+                        Math.min(matched[j] + 1, nextMatched[j - 1] + 1));
+                    int remaining = last ? Math.max(0, target.length - j - height[next]) : 0;
+                    bound = Math.min(bound, nextRow[j] + remaining);
+                }
+                if (bound > maxDistance) continue;
+
+                spelled.append(c);
+                int length = depth + 1;
+
+                // The sticker ends here whole, possibly as the last one
+                if (nameAt[next] >= 0 && canFollow(placed, nameAt[next])) {
+                    names[placed] = nameAt[next];
+                    lengths[placed] = length;
+                    if (last) {
+                        int distance = nextMatched[target.length];
+                        if (distance > 0 && distance <= maxDistance) {
+                            record();
+                        }
+                    } else {
+                        nextSticker(nextMatched, placed + 1);
+                    }
+                }
+
+                // The sticker is cut here; a later sticker has to finish the spelling
+                if (passingName[next] >= 0 && !last && canFollow(placed, passingName[next])) {
+                    names[placed] = passingName[next];
+                    lengths[placed] = length;
+                    nextSticker(nextMatched, placed + 1);
+                }
+
+                walk(next, nextRow, nextMatched, placed, length);
+                spelled.setLength(spelled.length() - 1);
+            }
+        }
+
+        /**
+         * Starts the placed-th sticker, unless an earlier path already reached the same state
+         * without result. Distances above maxDistance are all alike, as they can only grow. A state
+         * only counts as dead if the sticker before it did not rule anything out.
+         */
+        private void nextSticker(int[] row, int placed) {
+            char[] state = new char[row.length + 1];
+            state[0] = (char) placed;
+            for (int j = 0; j < row.length; j++) {
+                state[j + 1] = (char) Math.min(row[j], maxDistance + 1);
+            }
+            String key = new String(state);
+            if (dead.contains(key)) return;
+
+            int acceptedBefore = accepted;
+            int blockedBefore = blocked;
+            walk(ROOT, row, unmatched, placed, 0);
+            if (accepted == acceptedBefore && blocked == blockedBefore
+                    && found.size() < maxResults && System.nanoTime() <= deadline) {
+                dead.add(key);
+            }
+        }
+
+        /**
+         * The same name twice in a row needs two different variants of it
+         */
+        private boolean canFollow(int placed, int nameId) {
+            if (placed == 0 || names[placed - 1] != nameId || catalog.getVariantCount(nameId) > 1) {
+                return true;
+            }
+            blocked++;
+            return false;
+        }
+
+        /**
+         * Records the current path. Its row only counts alignments where every sticker matches
+         * something, so the distance reported is worked out again without that restriction.
+         */
+        private void record() {
+            accepted++;
+            String spelling = spelled.toString();
+            // Passes run with fewer stickers first, so each spelling keeps its shortest form
+            int distance = distance(spelling, target);
+            if (distance > 0 && seen.add(spelling)) {
+                found.add(new NearMiss(names.clone(), lengths.clone(), spelling, distance));
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.stickergenerator.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offline stand-in for the Steam Market, for benchmarks and load tests. Prices come from a
+ * JSON file of full market name to USD price; stickers missing from it get a price derived
+ * from a hash of their name. Each lookup completes after a fixed latency, and a fixed share
+ * of stickers (chosen by hash, so the same ones every run) fail to simulate scrape errors.
+ * Runs are reproducible and never touch the network.
+ */
+@Component
+@ConditionalOnProperty(name = "price.provider", havingValue = LocalPriceProvider.NAME)
+public class LocalPriceProvider implements PriceProvider {
+    private static final Logger log = LoggerFactory.getLogger(LocalPriceProvider.class);
+
+    static final String NAME = "local";
+
+    private final Map<String, Double> prices;
+    private final Executor delayed;
+    private final double errorRate;
+    private final long seed;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public LocalPriceProvider(ObjectMapper objectMapper,
+                              @Value("${price.local.file:}") String pricesFile,
+                              @Value("${price.local.latency-ms:0}") long latencyMillis,
+                              @Value("${price.local.error-rate:0.0}") double errorRate,
+                              @Value("${price.local.seed:42}") long seed) throws IOException {
+        this.prices = pricesFile.isBlank() ? Map.of()
+            : objectMapper.readValue(Files.readString(Paths.get(pricesFile), StandardCharsets.UTF_8),
+                new TypeReference<Map<String, Double>>() {});
+        // Completing after a delay holds no thread while "waiting for Steam"
+        this.delayed = CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS);
+        this.errorRate = errorRate;
+        this.seed = seed;
+        log.info("🧪 Local price provider: {} prices from file, {} ms latency, {}% errors",
+            prices.size(), latencyMillis, Math.round(errorRate * 100));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public CompletableFuture<Double> fetchPrice(String stickerName, String requester) {
+        lookups.increment();
+        return CompletableFuture.supplyAsync(() -> {
+            if (unit(stickerName, 1) < errorRate) {
+                failures.increment();
+                throw new IllegalStateException("Simulated market error for " + stickerName);
+            }
+            Double price = prices.get(stickerName);
+            return price != null ? price : syntheticPrice(stickerName);
+        }, delayed);
+    }
+
+    /**
+     * Between $0.03 and about $20, skewed towards cheap stickers like the real market
+     */
+    private double syntheticPrice(String stickerName) {
+        double u = unit(stickerName, 2);
+        return Math.round((0.03 + 20 * u * u * u) * 100.0) / 100.0;
+    }
+
+    /**
+     * Deterministic value in [0, 1) for the name, seed and salt
+     */
+    private double unit(String stickerName, long salt) {
+        long hash = seed * 0x9E3779B97F4A7C15L + salt;
+        for (int i = 0; i < stickerName.length(); i++) {
+            hash = (hash ^ stickerName.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pricesFromFile", prices.size());
+        stats.put("lookups", lookups.sum());
+        stats.put("simulatedFailures", failures.sum());
+        return stats;
+    }
+}
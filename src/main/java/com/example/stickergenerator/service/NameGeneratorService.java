@@ -2,157 +2,344 @@ package com.example.stickergenerator.service;
 
 import com.example.stickergenerator.model.Sticker;
 import com.example.stickergenerator.model.StickerCombo;
+import com.example.stickergenerator.tracing.RequestTrace;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
 
 @Service
 public class NameGeneratorService {
+    private static final Logger log = LoggerFactory.getLogger(NameGeneratorService.class);
+    
     private final StickerService stickerService;
     
-    public NameGeneratorService(StickerService stickerService) {
+    // Limits for spellings longer than a pair, keeping worst-case latency bounded
+    private final int maxStickers;
+    private final int maxResults;
+    private final long timeBudgetMs;
+    private final int fuzzyMaxDistance;
+    private final int fuzzyMaxStickers;
+    
+    private final CombinationCache combinationCache;
+    
+    private final MeterRegistry meterRegistry;
+    private final Counter pairsMatched;
+    
+    public NameGeneratorService(StickerService stickerService,
+                                MeterRegistry meterRegistry,
+                                @Value("${generator.max-stickers:5}") int maxStickers,
+                                @Value("${generator.max-results:100}") int maxResults,
+                                @Value("${generator.time-budget-ms:250}") long timeBudgetMs,
+                                @Value("${generator.cache.max-entries:1000}") int cacheMaxEntries,
+                                @Value("${generator.cache.ttl-seconds:600}") long cacheTtlSeconds,
+                                @Value("${generator.fuzzy.max-distance:2}") int fuzzyMaxDistance,
+                                @Value("${generator.fuzzy.max-stickers:2}") int fuzzyMaxStickers) {
         this.stickerService = stickerService;
+        this.maxStickers = maxStickers;
+        this.maxResults = maxResults;
+        this.timeBudgetMs = timeBudgetMs;
+        this.fuzzyMaxDistance = fuzzyMaxDistance;
+        this.fuzzyMaxStickers = fuzzyMaxStickers;
+        this.combinationCache = new CombinationCache(cacheMaxEntries, cacheTtlSeconds * 1000);
+        
+        this.meterRegistry = meterRegistry;
+        this.pairsMatched = Counter.builder("sticker.generation.pairs.matched")
+            .description("Two-sticker spellings matched by the pair index")
+            .register(meterRegistry);
+        FunctionCounter.builder("sticker.combination.cache", combinationCache, CombinationCache::getHits)
+            .tag("result", "hit")
+            .register(meterRegistry);
+        FunctionCounter.builder("sticker.combination.cache", combinationCache, CombinationCache::getMisses)
+            .tag("result", "miss")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Groups target lengths four at a time so the metric tags stay few whatever callers pass in
+     */
+    static String lengthBucket(int length) {
+        if (length > 20) return ">20";
+        int low = Math.max(0, length - 1) / 4 * 4 + 1;
+        return low + "-" + (low + 3);
     }
     
     public List<StickerCombo> generateNameCombinations(String targetName) {
-        System.out.println("Generating combinations for: '" + targetName + "'");
+        return generateNameCombinations(targetName, maxStickers, false);
+    }
+    
+    /**
+     * Generates combinations using at most the given number of stickers (capped by generator.max-stickers).
+     * Matching runs on distinct names; with expandVariants every rarity combination is listed,
+     * otherwise each spelling is returned once using the base variant of each sticker.
+     */
+    public List<StickerCombo> generateNameCombinations(String targetName, int stickerLimit, boolean expandVariants) {
+        return generateNameCombinations(targetName, stickerLimit, expandVariants, combo -> {});
+    }
+    
+    /**
+     * Same as above, additionally handing each combination to onFound as soon as it is known:
+     * singles and pairs before the slower search for longer spellings starts
+     */
+    public List<StickerCombo> generateNameCombinations(String targetName, int stickerLimit, boolean expandVariants,
+                                                       Consumer<StickerCombo> onFound) {
+        int depth = Math.max(1, Math.min(stickerLimit, maxStickers));
+        StickerCatalog catalog = stickerService.getCatalog();
+        CombinationCache.Key key = new CombinationCache.Key(
+            catalog.getVersion(), targetName.toLowerCase(), depth, expandVariants);
         
-        List<Sticker> allStickers = stickerService.getAllStickers();
-        System.out.println("Available stickers: " + allStickers.size());
-        for (Sticker sticker : allStickers) {
-            System.out.println("  - " + sticker.getExtractedName() + " (from: " + sticker.getFullName() + ")");
+        RequestTrace.Span span = RequestTrace.start("generate").tag("length", targetName.length());
+        List<StickerCombo> cached = combinationCache.get(key);
+        if (cached != null) {
+            log.debug("💾 Using cached combinations for: '{}'", targetName);
+            cached.forEach(onFound);
+            span.tag("cached", true).tag("combinations", cached.size()).close();
+            return cached;
         }
         
-        List<StickerCombo> combinations = new ArrayList<>();
-        generateOverlappingCombinations(targetName.toLowerCase(), "", new ArrayList<>(), combinations);
-        
-        System.out.println("Generated " + combinations.size() + " combinations");
+        // Tagged by target length, the main driver of generation cost
+        String length = lengthBucket(targetName.length());
+        long started = System.nanoTime();
+        Generated generated = generateUncached(catalog, targetName, depth, expandVariants, onFound);
+        List<StickerCombo> combinations = generated.combinations();
+        span.tag("cached", false).tag("combinations", combinations.size()).close();
+        Timer.builder("sticker.generation")
+            .description("Uncached combination generation")
+            .tag("length", length)
+            .register(meterRegistry)
+            .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("sticker.generation.combinations")
+            .description("Combinations found per uncached generation")
+            .tag("length", length)
+            .register(meterRegistry)
+            .record(combinations.size());
+        if (generated.complete()) {
+            combinationCache.put(key, combinations);
+        } else {
+            // A partial answer from one slow request must not be served to everyone until the TTL
+            log.debug("Not caching '{}': search stopped at the result cap or time budget", targetName);
+        }
         return combinations;
     }
     
-        /**
-     * Generates sticker combinations using overlapping logic - stickers can overwrite parts of previous stickers
+    /**
+     * Combinations of one generation, and whether the search ran to the end
      */
-    private void generateOverlappingCombinations(String targetName, String currentResult, 
-                                               List<Sticker> currentCombo, List<StickerCombo> results) {
-        
-        // Simple approach: try single stickers and 2-sticker combinations
-        if (currentCombo.isEmpty()) {
-            List<Sticker> allStickers = stickerService.getAllStickers();
-            
-            System.out.println("🎯 Searching for: '" + targetName + "'");
-            
-            // Method 0: Single sticker exact match
-            for (Sticker sticker : allStickers) {
-                String stickerName = sticker.getExtractedName().toLowerCase();
-                if (stickerName.equals(targetName)) {
-                    System.out.println("🎉 FOUND (single): " + stickerName + " = " + targetName);
-                    results.add(new StickerCombo(targetName, Arrays.asList(sticker)));
-                }
-            }
-            
-            // Try each sticker as the first sticker
-            for (Sticker sticker1 : allStickers) {
-                String name1 = sticker1.getExtractedName().toLowerCase();
-                
-                // Try each sticker as the second sticker
-                for (Sticker sticker2 : allStickers) {
-                    if (sticker1.equals(sticker2)) continue; // Skip same sticker
-                    
-                    String name2 = sticker2.getExtractedName().toLowerCase();
-                    
-                    // Method 1: Simple concatenation
-                    String concat = name1 + name2;
-                    if (concat.equals(targetName)) {
-                        System.out.println("🎉 FOUND (concat): " + name1 + " + " + name2 + " = " + concat);
-                        results.add(new StickerCombo(targetName, Arrays.asList(sticker1, sticker2)));
-                    }
-                    
-                    // Method 2: Overlapping - try cutting first sticker at different positions
-                    for (int cutPos = 1; cutPos < name1.length(); cutPos++) {
-                        String overlap = name1.substring(0, cutPos) + name2;
-                        
-                        if (overlap.equals(targetName)) {
-                            System.out.println("🎉 FOUND (overlap): " + name1 + "[0:" + cutPos + "] + " + name2 + " = " + overlap);
-                            results.add(new StickerCombo(targetName, Arrays.asList(sticker1, sticker2)));
-                        }
-                    }
-                    
-                    // Method 3: Reverse overlapping - try cutting second sticker  
-                    for (int cutPos = 1; cutPos < name2.length(); cutPos++) {
-                        String overlap = name1 + name2.substring(cutPos);
-                        
-                        if (overlap.equals(targetName)) {
-                            System.out.println("🎉 FOUND (reverse): " + name1 + " + " + name2 + "[" + cutPos + ":] = " + overlap);
-                            results.add(new StickerCombo(targetName, Arrays.asList(sticker1, sticker2)));
-                        }
+    private record Generated(List<StickerCombo> combinations, boolean complete) {}
+    
+    private Generated generateUncached(StickerCatalog catalog, String targetName, int depth,
+                                       boolean expandVariants, Consumer<StickerCombo> onFound) {
+        StickerMatchIndex matchIndex = catalog.getMatchIndex();
+        long deadline = System.nanoTime() + timeBudgetMs * 1_000_000L;
+        log.debug("Generating combinations for: '{}' (up to {} stickers, {} in catalog)", targetName, depth, catalog.size());
+        
+        // Stickers are only materialized here, once per id, for the combos handed back
+        Map<Integer, Sticker> stickers = new HashMap<>();
+        List<StickerCombo> combinations = new ArrayList<>();
+        int[] expansionLimit = {Integer.MAX_VALUE};
+        int[] spellingCount = {0};
+        boolean[] expansionCut = {false};
+        boolean searchComplete = generateOverlappingCombinations(matchIndex, targetName.toLowerCase(), depth, deadline, spellings -> {
+            int emitted = combinations.size();
+            for (int[] nameIds : spellings) {
+                if (expandVariants) {
+                    // Singles and pairs expand fully; longer spellings share the result cap
+                    if (nameIds.length >= 3 && expansionLimit[0] == Integer.MAX_VALUE) {
+                        expansionLimit[0] = combinations.size() + maxResults;
                     }
+                    if (combinations.size() >= expansionLimit[0]) break;
+                    expandVariants(matchIndex, targetName.toLowerCase(), nameIds, 0, new int[nameIds.length],
+                        expansionLimit[0], stickers, combinations);
+                } else {
+                    addBaseVariant(matchIndex, targetName.toLowerCase(), nameIds, stickers, combinations);
                 }
             }
+            // Reaching the cap means some rarity combinations were left out
+            expansionCut[0] |= combinations.size() >= expansionLimit[0];
+            spellingCount[0] += spellings.size();
+            combinations.subList(emitted, combinations.size()).forEach(onFound);
+        });
+        
+        log.debug("Generated {} combinations from {} spellings", combinations.size(), spellingCount[0]);
+        return new Generated(combinations, searchComplete && !expansionCut[0]);
+    }
+    
+    /**
+     * Generates sticker spellings (as name ids) using overlapping logic - stickers can overwrite parts of previous stickers.
+     * Each group of spellings (singles, pairs, longer) is passed on as soon as it is complete.
+     * Returns false if the longer spellings were cut short by the result cap or time budget.
+     */
+    private boolean generateOverlappingCombinations(StickerMatchIndex matchIndex, String targetName, int depth,
+                                                 long deadline, Consumer<List<int[]>> onSpellings) {
+        log.debug("🎯 Searching for: '{}' across {} distinct names", targetName, matchIndex.getNameCount());
+        char[] target = targetName.toCharArray();
+        
+        // Method 0: Single sticker exact match
+        List<int[]> singles = new ArrayList<>();
+        for (int nameId : matchIndex.withName(target, 0, target.length)) {
+            log.debug("🎉 FOUND (single): {}", targetName);
+            singles.add(new int[]{nameId});
         }
+        onSpellings.accept(singles);
+        
+        if (depth < 2) return true;
+        
+        // Methods 1-3: concat, overlap and reverse overlap of two stickers
+        List<int[]> pairs = new ArrayList<>();
+        List<int[]> candidates = matchIndex.findPairs(target);
+        pairsMatched.increment(candidates.size());
+        for (int[] pair : candidates) {
+            if (pair[0] == pair[1] && matchIndex.getVariantCount(pair[0]) < 2) continue;
+            pairs.add(pair);
+        }
+        log.debug("🎉 FOUND (pair): {} spellings", pairs.size());
+        onSpellings.accept(pairs);
+        
+        if (depth < 3) return true;
+        
+        // Method 4: three or more stickers, bounded by result cap and time budget
+        SpellingSearch search = new SpellingSearch(matchIndex);
+        List<int[]> spellings = search.find(target, 3, depth, maxResults, deadline);
+        log.debug("🎉 FOUND ({}-deep): {} longer spellings", depth, spellings.size());
+        onSpellings.accept(spellings);
+        return !search.isCutShort();
     }
     
     /**
-     * Places a sticker at a specific position, overwriting existing characters
+     * The count cheapest spellings of the target, cheapest first, using at most the given number of
+     * stickers (capped by generator.max-stickers). Each name is spelled with its cheapest variant
+     * according to stickerPrice; no list of all combinations is built.
      */
-    private String placeSticker(String currentResult, String stickerName, int position) {
-        String result;
+    public List<StickerCombo> findCheapestSpellings(String targetName, int stickerLimit, int count,
+                                                    ToDoubleFunction<String> stickerPrice) {
+        int depth = Math.max(1, Math.min(stickerLimit, maxStickers));
+        StickerCatalog catalog = stickerService.getCatalog();
+        StickerMatchIndex matchIndex = catalog.getMatchIndex();
+        String target = targetName.toLowerCase();
         
-        if (position >= currentResult.length()) {
-            // Placing at or beyond the end - just append
-            result = currentResult + stickerName;
-            System.out.println("    🔗 Append mode: '" + currentResult + "' + '" + stickerName + "' = '" + result + "'");
-        } else {
-            // Overlapping placement - overwrite existing characters
-            String before = currentResult.substring(0, position);
-            String after = "";
-            
-            int endPosition = position + stickerName.length();
-            if (endPosition < currentResult.length()) {
-                after = currentResult.substring(endPosition);
+        long deadline = System.nanoTime() + timeBudgetMs * 1_000_000L;
+        List<int[]> spellings = new SpellingSearch(matchIndex).findCheapest(target.toCharArray(), depth, count,
+            stickerId -> stickerPrice.applyAsDouble(catalog.getFullName(stickerId)), deadline);
+        
+        List<StickerCombo> combinations = new ArrayList<>(spellings.size());
+        for (int[] stickerIds : spellings) {
+            List<Sticker> stickers = new ArrayList<>(stickerIds.length);
+            for (int stickerId : stickerIds) {
+                stickers.add(matchIndex.getSticker(stickerId));
             }
-            
-            result = before + stickerName + after;
-            System.out.println("    ⚡ Overlap mode: before='" + before + "' + sticker='" + stickerName + 
-                "' + after='" + after + "' = '" + result + "'");
+            combinations.add(new StickerCombo(target, stickers));
         }
-        
-        return result;
+        return combinations;
     }
     
     /**
-     * Checks if the current result is making valid progress toward the target
+     * Spellings within generator.fuzzy.max-distance edits of the target (but not exact), closest
+     * first, using at most the given number of stickers (capped by generator.fuzzy.max-stickers).
+     * Each is spelled with base variants; spelling and editDistance tell what the stickers
+     * actually read and how far that is off. Empty when the target itself can be spelled within
+     * the sticker limit, since the exact combinations already answer it.
      */
-    private boolean isValidProgress(String currentResult, String targetName) {
-        // Allow much more flexibility for debugging
-        if (currentResult.length() > targetName.length() + 5) {
-            System.out.println("❌ Rejected '" + currentResult + "' - too long");
-            return false;
+    public List<StickerCombo> findNearMissSpellings(String targetName, int stickerLimit) {
+        int depth = Math.max(1, Math.min(stickerLimit, Math.min(maxStickers, fuzzyMaxStickers)));
+        StickerCatalog catalog = stickerService.getCatalog();
+        StickerMatchIndex matchIndex = catalog.getMatchIndex();
+        String target = targetName.toLowerCase();
+        long deadline = System.nanoTime() + timeBudgetMs * 1_000_000L;
+        
+        int exactDepth = Math.max(1, Math.min(stickerLimit, maxStickers));
+        if (!new SpellingSearch(matchIndex).find(target.toCharArray(), 1, exactDepth, 1, deadline).isEmpty()) {
+            log.debug("🔎 '{}' has an exact spelling, no near misses", targetName);
+            return List.of();
         }
         
-        // For now, be very permissive to see what combinations are being generated
-        boolean isValid = true;
+        RequestTrace.Span span = RequestTrace.start("fuzzy").tag("length", targetName.length());
+        List<FuzzyNameIndex.NearMiss> misses = catalog.getFuzzyIndex()
+            .findNearMisses(target.toCharArray(), fuzzyMaxDistance, depth, maxResults, deadline);
+        span.tag("suggestions", misses.size()).close();
+        log.debug("🔎 {} near-miss spellings for '{}'", misses.size(), targetName);
         
-        // Check if we're making some reasonable progress
-        if (currentResult.length() <= targetName.length()) {
-            // Check if current result could be part of target
-            isValid = targetName.contains(currentResult) || targetName.startsWith(currentResult);
-        } else {
-            // If longer than target, check if it starts with target
-            isValid = currentResult.startsWith(targetName);
+        Map<Integer, Sticker> stickers = new HashMap<>();
+        List<StickerCombo> combinations = new ArrayList<>(misses.size());
+        for (FuzzyNameIndex.NearMiss miss : misses) {
+            addBaseVariant(matchIndex, target, miss.nameIds(), stickers, combinations);
+            StickerCombo combo = combinations.get(combinations.size() - 1);
+            combo.setSpelling(miss.spelling());
+            combo.setEditDistance(miss.distance());
+        }
+        return combinations;
+    }
+    
+    /**
+     * Adds one combo for the spelling, using the first variant of each name that differs
+     * from the sticker before it
+     */
+    private void addBaseVariant(StickerMatchIndex matchIndex, String targetName, int[] nameIds,
+                                Map<Integer, Sticker> stickers, List<StickerCombo> results) {
+        List<Sticker> chosen = new ArrayList<>(nameIds.length);
+        long variantCount = 1;
+        int previous = -1;
+        for (int nameId : nameIds) {
+            int stickerId = matchIndex.getVariant(nameId, 0);
+            if (stickerId == previous) {
+                stickerId = matchIndex.getVariant(nameId, 1);
+            }
+            chosen.add(stickers.computeIfAbsent(stickerId, matchIndex::getSticker));
+            variantCount *= matchIndex.getVariantCount(nameId);
+            previous = stickerId;
         }
         
-        System.out.println((isValid ? "✅" : "❌") + " Progress check: '" + currentResult + 
-            "' for target '" + targetName + "' → " + isValid);
-        
-        return isValid;
+        StickerCombo combo = new StickerCombo(targetName, chosen);
+        combo.setVariantCount(variantCount);
+        results.add(combo);
     }
     
-    public List<String> getAllStickerNames() {
-        return stickerService.getAllStickers().stream()
-            .map(Sticker::getExtractedName)
-            .toList();
+    /**
+     * Adds one combo per rarity variant combination, never placing the same sticker twice in a row
+     */
+    private void expandVariants(StickerMatchIndex matchIndex, String targetName, int[] nameIds, int position,
+                                int[] chosen, int limit, Map<Integer, Sticker> stickers,
+                                List<StickerCombo> results) {
+        if (results.size() >= limit) return;
+        if (position == nameIds.length) {
+            List<Sticker> combo = new ArrayList<>(chosen.length);
+            for (int stickerId : chosen) {
+                combo.add(stickers.computeIfAbsent(stickerId, matchIndex::getSticker));
+            }
+            results.add(new StickerCombo(targetName, combo));
+            return;
+        }
+        int variants = matchIndex.getVariantCount(nameIds[position]);
+        for (int i = 0; i < variants; i++) {
+            int stickerId = matchIndex.getVariant(nameIds[position], i);
+            if (position > 0 && stickerId == chosen[position - 1]) continue;
+            chosen[position] = stickerId;
+            expandVariants(matchIndex, targetName, nameIds, position + 1, chosen, limit, stickers, results);
+        }
     }
     
-
+    /**
+     * Hit/miss counters of the combination cache
+     */
+    public Map<String, Object> getCacheStats() {
+        return combinationCache.getStats();
+    }
+    
+    public List<String> getAllStickerNames() {
+        StickerCatalog catalog = stickerService.getCatalog();
+        List<String> names = new ArrayList<>(catalog.size());
+        for (int id = 0; id < catalog.size(); id++) {
+            names.add(catalog.getDisplayName(id));
+        }
+        return names;
+    }
 }
@@ -0,0 +1,84 @@
+package com.example.stickergenerator.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe price cache with per-entry fetch timestamps. Entries older than the TTL are
+ * still returned (flagged stale) so callers can serve them while a refresh runs. When the
+ * cache grows past its maximum size the oldest tenth of the entries is dropped in one pass.
+ */
+public class PriceCache {
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final long ttlMillis;
+    private final int maxSize;
+
+    public record Entry(double price, long fetchedAt) {}
+
+    public PriceCache(long ttlMillis, int maxSize) {
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Cached entry regardless of age, or null
+     */
+    public Entry get(String stickerName) {
+        return entries.get(stickerName);
+    }
+
+    public boolean isFresh(Entry entry) {
+        return System.currentTimeMillis() - entry.fetchedAt() < ttlMillis;
+    }
+
+    public void put(String stickerName, double price) {
+        put(stickerName, price, System.currentTimeMillis());
+    }
+
+    /**
+     * Stores a price fetched at the given time, unless a newer one is already cached
+     */
+    public void put(String stickerName, double price, long fetchedAt) {
+        entries.merge(stickerName, new Entry(price, fetchedAt),
+            (current, offered) -> offered.fetchedAt() >= current.fetchedAt() ? offered : current);
+        if (entries.size() > maxSize) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        if (!evictionLock.tryLock()) return; // another thread is already trimming
+        try {
+            int excess = entries.size() - maxSize;
+            if (excess <= 0) return;
+
+            int toRemove = Math.max(excess, maxSize / 10);
+            List<Map.Entry<String, Entry>> snapshot = new ArrayList<>(entries.entrySet());
+            snapshot.sort(Comparator.comparingLong(e -> e.getValue().fetchedAt()));
+            for (int i = 0; i < toRemove && i < snapshot.size(); i++) {
+                Map.Entry<String, Entry> oldest = snapshot.get(i);
+                entries.remove(oldest.getKey(), oldest.getValue());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public Map<String, Entry> snapshot() {
+        return Collections.unmodifiableMap(entries);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.stickergenerator.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often each sticker's price is requested, so background refreshes go to the
+ * stickers users actually look at. Counts are halved on every decay so recent demand
+ * outweighs old demand, and names whose count drops to zero are forgotten.
+ */
+public class PriceDemand {
+    private final ConcurrentHashMap<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+    public void record(String stickerName) {
+        counts.computeIfAbsent(stickerName, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Up to limit stickers, most requested first
+     */
+    public List<String> hottest(int limit) {
+        List<Map.Entry<String, Long>> snapshot = new ArrayList<>(counts.size());
+        counts.forEach((name, count) -> snapshot.add(Map.entry(name, count.sum())));
+        snapshot.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+        List<String> hot = new ArrayList<>(Math.min(limit, snapshot.size()));
+        for (int i = 0; i < limit && i < snapshot.size(); i++) {
+            hot.add(snapshot.get(i).getKey());
+        }
+        return hot;
+    }
+
+    /**
+     * Halves every count; requests recorded concurrently may be counted in either half
+     */
+    public void decay() {
+        counts.forEach((name, count) -> {
+            long current = count.sumThenReset();
+            if (current / 2 > 0) {
+                count.add(current / 2);
+            } else {
+                counts.remove(name, count);
+            }
+        });
+    }
+
+    public int size() {
+        return counts.size();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.stickergenerator.service;
+
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the blocking scraping work of SteamMarketService off the common ForkJoin pool, either
+ * on a bounded pool of platform threads or on one virtual thread per task. Virtual threads
+ * need Java 21; on older runtimes the platform pool is used instead. Tasks that do not fit
+ * in the bounded queue are rejected so callers fall back instead of piling up.
+ */
+public class PriceFetchExecutor implements Executor {
+    private static final Logger log = LoggerFactory.getLogger(PriceFetchExecutor.class);
+
+    public static final String PLATFORM = "platform";
+    public static final String VIRTUAL = "virtual";
+
+    private final ExecutorService delegate;
+    private final String mode;
+    private final ThreadPoolExecutor pool; // null in virtual mode
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final Timer queueWaitTimer;
+
+    public PriceFetchExecutor(String mode, int poolSize, int queueCapacity, Timer queueWaitTimer) {
+        this.queueWaitTimer = queueWaitTimer;
+        ExecutorService virtual = VIRTUAL.equalsIgnoreCase(mode) ? newVirtualThreadExecutor() : null;
+        if (virtual != null) {
+            this.delegate = virtual;
+            this.mode = VIRTUAL;
+            this.pool = null;
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "price-fetch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+            this.pool.allowCoreThreadTimeOut(true);
+            this.delegate = pool;
+            this.mode = PLATFORM;
+        }
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() looked up reflectively so the code still
+     * compiles for and runs on Java 17; null when the runtime has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("⚠️ Virtual threads need Java 21+, fetching prices on a platform thread pool instead");
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        long queuedAt = System.nanoTime();
+        try {
+            delegate.execute(() -> {
+                long waited = System.nanoTime() - queuedAt;
+                maxQueueWaitNanos.accumulateAndGet(waited, Math::max);
+                queueWaitTimer.record(waited, TimeUnit.NANOSECONDS);
+                peakActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                    completed.increment();
+                }
+            });
+            submitted.increment();
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * Tasks waiting for a thread; always 0 in virtual mode, where every task gets its own
+     */
+    public int getQueued() {
+        return pool != null ? pool.getQueue().size() : 0;
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Active and queued tasks plus rejections, to tell when scraping is saturating the pool
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", mode);
+        stats.put("active", active.get());
+        stats.put("peakActive", peakActive.get());
+        if (pool != null) {
+            stats.put("poolSize", pool.getMaximumPoolSize());
+            stats.put("queued", pool.getQueue().size());
+            stats.put("queueRemainingCapacity", pool.getQueue().remainingCapacity());
+        }
+        stats.put("submitted", submitted.sum());
+        stats.put("completed", completed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("maxQueueWaitMs", maxQueueWaitNanos.get() / 1e6);
+        return stats;
+    }
+
+    public void shutdown() {
+        delegate.shutdownNow();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.stickergenerator.service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Source of market prices behind SteamMarketService, which adds caching, persistence,
+ * single-flight and fallback prices on top. The implementation is chosen with the
+ * price.provider property: "steam" scrapes the live Steam Market, "local" serves
+ * deterministic prices without network access for benchmarks and offline runs.
+ */
+public interface PriceProvider {
+
+    /**
+     * Name used in the price.provider property and in stats
+     */
+    String getName();
+
+    /**
+     * Looks up the current price of one sticker by its full market name. Completes with 0 when
+     * no price could be found, or exceptionally when the lookup itself failed. The requester
+     * identifies the caller for providers that share a request budget between callers.
+     */
+    CompletableFuture<Double> fetchPrice(String stickerName, String requester);
+
+    /**
+     * Looks up many stickers at once and completes with the prices that were found. Providers
+     * that can price several stickers with one request override this; by default every sticker
+     * is looked up on its own.
+     */
+    default CompletableFuture<Map<String, Double>> fetchPrices(Collection<String> stickerNames, String requester) {
+        Map<String, Double> found = Collections.synchronizedMap(new HashMap<>());
+        CompletableFuture<?>[] lookups = stickerNames.stream()
+            .map(stickerName -> fetchPrice(stickerName, requester)
+                .thenAccept(price -> {
+                    if (price > 0) found.put(stickerName, price);
+                })
+                .exceptionally(e -> null))
+            .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(lookups).thenApply(done -> found);
+    }
+
+    /**
+     * Requester for work nobody waits on. Providers with a shared budget serve it only when no
+     * user lookup is queued.
+     */
+    String BACKGROUND_REQUESTER = "background";
+
+    /**
+     * Whether a lookup started now would only use spare capacity, i.e. would not delay lookups
+     * made for users. Background refreshes only run while this holds.
+     */
+    default boolean hasSpareCapacity() {
+        return true;
+    }
+
+    /**
+     * Provider-specific counters for /debug/cache
+     */
+    default Map<String, Object> getStats() {
+        return Map.of();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.stickergenerator.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Map;
+
+/**
+ * Append-only on-disk log of fetched prices, one "fetchedAtMillis TAB price TAB fullName" line
+ * per fetch, keyed by the sticker's full market name. Replaying the log at startup restores
+ * the latest price of every sticker; compaction rewrites it with one line per sticker.
+ */
+public class PriceStore {
+    private static final Logger log = LoggerFactory.getLogger(PriceStore.class);
+
+    private final Path path;
+    private BufferedWriter writer;
+    private int appendedSinceCompaction;
+
+    public PriceStore(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Replays the log into the cache (newest line per sticker wins) and opens it for appending.
+     * Returns the number of lines read.
+     */
+    public synchronized int load(PriceCache cache) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        int lines = 0;
+        if (Files.exists(path)) {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t", 3);
+                if (fields.length != 3) continue; // torn write from a crash
+                try {
+                    cache.put(fields[2], Double.parseDouble(fields[1]), Long.parseLong(fields[0]));
+                    lines++;
+                } catch (NumberFormatException e) {
+                    // skip the damaged line, the next fetch of that sticker replaces it
+                }
+            }
+        }
+
+        openWriter();
+        return lines;
+    }
+
+    public synchronized void append(String stickerName, double price, long fetchedAt) {
+        if (writer == null || stickerName.indexOf('\t') >= 0 || stickerName.indexOf('\n') >= 0) return;
+        try {
+            writer.write(fetchedAt + "\t" + price + "\t" + stickerName);
+            writer.newLine();
+            writer.flush();
+            appendedSinceCompaction++;
+        } catch (IOException e) {
+            log.warn("❌ Could not persist price for {}: {}", stickerName, e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the log with just the given entries, swapping the file in atomically
+     */
+    public synchronized void compact(Map<String, PriceCache.Entry> entries) throws IOException {
+        if (writer == null || appendedSinceCompaction == 0) return;
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, PriceCache.Entry> entry : entries.entrySet()) {
+                if (entry.getKey().indexOf('\t') >= 0 || entry.getKey().indexOf('\n') >= 0) continue;
+                out.write(entry.getValue().fetchedAt() + "\t" + entry.getValue().price() + "\t" + entry.getKey());
+                out.newLine();
+            }
+        }
+
+        writer.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openWriter();
+        appendedSinceCompaction = 0;
+    }
+
+    private void openWriter() throws IOException {
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    public synchronized void close() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("❌ Could not close price store: {}", e.getMessage());
+        }
+        writer = null;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+}
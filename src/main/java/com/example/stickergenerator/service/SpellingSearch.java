@@ -0,0 +1,303 @@
+package com.example.stickergenerator.service;
+
+import java.util.*;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Finds spellings made of several stickers with dynamic programming over the
+ * positions of the target. Every sticker covers one segment of the target either
+ * whole, cut at the end (the next sticker covers its tail) or cut at the front
+ * (the previous sticker covers its head), the same rules the pair search uses.
+ * Works on name ids; rarity variants are attached by the caller.
+ */
+public class SpellingSearch {
+    private static final int WHOLE = 0;
+    private static final int CUT_END = 1;
+    private static final int CUT_FRONT = 2;
+    private static final int UNREACHABLE = Integer.MAX_VALUE / 2;
+
+    private final StickerMatchIndex matchIndex;
+    private boolean cutShort;
+
+    public SpellingSearch(StickerMatchIndex matchIndex) {
+        this.matchIndex = matchIndex;
+    }
+
+    /**
+     * A run of name ids that can all cover target[start, end) the same way
+     */
+    private record Segment(int end, int kind, int[] ids) {}
+
+    /**
+     * Lists spellings of the target using between minStickers and maxStickers stickers.
+     * Stops once maxResults spellings are found or the deadline (System.nanoTime) passes,
+     * see isCutShort.
+     */
+    public List<int[]> find(char[] target, int minStickers, int maxStickers, int maxResults, long deadline) {
+        List<int[]> results = new ArrayList<>();
+        cutShort = false;
+        int length = target.length;
+        if (length == 0 || maxStickers < minStickers || maxResults <= 0) {
+            return results;
+        }
+
+        List<List<Segment>> segments = buildSegments(target, deadline);
+        if (segments == null) {
+            cutShort = true;
+            return results;
+        }
+        int[][] remaining = minStickersToEnd(segments, length);
+        if (remaining[0][0] > maxStickers) {
+            return results;
+        }
+
+        Walk walk = new Walk(segments, remaining, length, minStickers, maxStickers, maxResults, deadline, results);
+        walk.extend(0, WHOLE, -1, new int[maxStickers], 0);
+        cutShort = walk.stopped;
+        return results;
+    }
+
+    /**
+     * Whether the last find stopped at the result cap or the deadline, so it may have missed spellings
+     */
+    public boolean isCutShort() {
+        return cutShort;
+    }
+
+    /**
+     * A partial spelling: its cost so far and the sticker ids placed
+     */
+    private record Label(double cost, int[] stickers) {}
+
+    /**
+     * The count cheapest spellings of the target with at most maxStickers stickers, cheapest first,
+     * as sticker ids. Each name is placed with its cheapest variant (the next cheapest when that
+     * sticker was just placed). A shortest-path DP over states (position, previous sticker cut at
+     * the end, stickers used, last sticker) that keeps the count cheapest distinct partial spellings
+     * per state, so the work grows with target length times matching names rather than with the
+     * number of spellings. The last sticker is part of the state because it decides the variant of
+     * the next one. Returns nothing once the deadline (System.nanoTime) passes.
+     */
+    public List<int[]> findCheapest(char[] target, int maxStickers, int count, IntToDoubleFunction stickerPrice,
+                                    long deadline) {
+        int length = target.length;
+        if (length == 0 || maxStickers <= 0 || count <= 0) {
+            return List.of();
+        }
+
+        List<List<Segment>> segments = buildSegments(target, deadline);
+        if (segments == null) {
+            return List.of();
+        }
+        int[][] remaining = minStickersToEnd(segments, length);
+        if (remaining[0][0] > maxStickers) {
+            return List.of();
+        }
+
+        Map<Integer, Double> prices = new HashMap<>();
+        Map<Integer, int[]> variantsByPrice = new HashMap<>();
+        IntToDoubleFunction price = id -> prices.computeIfAbsent(id, stickerPrice::applyAsDouble);
+
+        // Labels per state, grouped by their last sticker (-1 before the first)
+        @SuppressWarnings("unchecked")
+        Map<Integer, List<Label>>[][][] best = new Map[length + 1][2][maxStickers + 1];
+        best[0][0][0] = Map.of(-1, List.of(new Label(0, new int[0])));
+
+        for (int pos = 0; pos < length; pos++) {
+            if (System.nanoTime() - deadline > 0) {
+                return List.of();
+            }
+            for (int afterCutEnd = 0; afterCutEnd < 2; afterCutEnd++) {
+                for (int used = 0; used < maxStickers; used++) {
+                    Map<Integer, List<Label>> byLast = best[pos][afterCutEnd][used];
+                    if (byLast == null) continue;
+
+                    for (Segment segment : segments.get(pos)) {
+                        if (afterCutEnd == 1 && segment.kind() == CUT_FRONT) continue;
+                        int nextAfterCutEnd = segment.kind() == CUT_END ? 1 : 0;
+                        if (used + 1 + remaining[segment.end()][nextAfterCutEnd] > maxStickers) continue;
+
+                        for (int nameId : segment.ids()) {
+                            int[] variants = variantsByPrice.computeIfAbsent(nameId, id -> sortedByPrice(id, price));
+                            for (Map.Entry<Integer, List<Label>> entry : byLast.entrySet()) {
+                                int previous = entry.getKey();
+                                int sticker = variants[0] != previous ? variants[0] : variants.length > 1 ? variants[1] : -1;
+                                if (sticker < 0) continue;
+
+                                Map<Integer, List<Label>> next = best[segment.end()][nextAfterCutEnd][used + 1];
+                                if (next == null) {
+                                    next = new HashMap<>();
+                                    best[segment.end()][nextAfterCutEnd][used + 1] = next;
+                                }
+                                List<Label> reached = next.computeIfAbsent(sticker, id -> new ArrayList<>(count + 1));
+                                double stickerCost = price.applyAsDouble(sticker);
+                                for (Label label : entry.getValue()) {
+                                    int[] stickers = Arrays.copyOf(label.stickers(), label.stickers().length + 1);
+                                    stickers[stickers.length - 1] = sticker;
+                                    offer(reached, new Label(label.cost() + stickerCost, stickers), count);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Label> complete = new ArrayList<>();
+        for (int used = 1; used <= maxStickers; used++) {
+            if (best[length][0][used] != null) {
+                best[length][0][used].values().forEach(complete::addAll);
+            }
+        }
+        complete.sort(Comparator.comparingDouble(Label::cost));
+
+        List<int[]> cheapest = new ArrayList<>(Math.min(count, complete.size()));
+        for (int i = 0; i < count && i < complete.size(); i++) {
+            cheapest.add(complete.get(i).stickers());
+        }
+        return cheapest;
+    }
+
+    private int[] sortedByPrice(int nameId, IntToDoubleFunction price) {
+        int variantCount = matchIndex.getVariantCount(nameId);
+        Integer[] variants = new Integer[variantCount];
+        for (int i = 0; i < variantCount; i++) {
+            variants[i] = matchIndex.getVariant(nameId, i);
+        }
+        // Stable, so equally priced variants keep catalog order (base sticker first)
+        Arrays.sort(variants, Comparator.comparingDouble(price::applyAsDouble));
+        return Arrays.stream(variants).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Inserts the label into the ascending list, keeping at most count labels. The same stickers
+     * reached again through other cut points are dropped, so the count labels are distinct.
+     */
+    private static void offer(List<Label> labels, Label label, int count) {
+        if (labels.size() == count && labels.get(count - 1).cost() <= label.cost()) return;
+        int at = labels.size();
+        while (at > 0 && labels.get(at - 1).cost() > label.cost()) {
+            at--;
+        }
+        // Identical stickers add up to the identical cost, so only equal costs need comparing
+        for (int i = at - 1; i >= 0 && labels.get(i).cost() == label.cost(); i--) {
+            if (Arrays.equals(labels.get(i).stickers(), label.stickers())) return;
+        }
+        labels.add(at, label);
+        if (labels.size() > count) {
+            labels.remove(count);
+        }
+    }
+
+    /**
+     * Segments starting at each position of the target, looked up through the index. No segment
+     * is longer than the longest name, so this is linear in the target length. Returns null once
+     * the deadline passes.
+     */
+    private List<List<Segment>> buildSegments(char[] target, long deadline) {
+        int length = target.length;
+        int longest = matchIndex.getMaxNameLength();
+        List<List<Segment>> segments = new ArrayList<>(length);
+        for (int start = 0; start < length; start++) {
+            if (System.nanoTime() - deadline > 0) {
+                return null;
+            }
+            List<Segment> fromHere = new ArrayList<>();
+            int last = (int) Math.min(length, (long) start + longest);
+            for (int end = start + 1; end <= last; end++) {
+                addSegment(fromHere, end, WHOLE, matchIndex.withName(target, start, end));
+                if (end < length) {
+                    addSegment(fromHere, end, CUT_END, matchIndex.withProperPrefix(target, start, end));
+                }
+                if (start > 0) {
+                    addSegment(fromHere, end, CUT_FRONT, matchIndex.withProperSuffix(target, start, end));
+                }
+            }
+            segments.add(fromHere);
+        }
+        return segments;
+    }
+
+    private static void addSegment(List<Segment> segments, int end, int kind, int[] ids) {
+        if (ids.length > 0) {
+            segments.add(new Segment(end, kind, ids));
+        }
+    }
+
+    /**
+     * remaining[pos][afterCutEnd] is the fewest stickers needed to cover target[pos..]
+     * when the sticker before pos was (1) or was not (0) cut at the end
+     */
+    private static int[][] minStickersToEnd(List<List<Segment>> segments, int length) {
+        int[][] remaining = new int[length + 1][2];
+        remaining[length][0] = 0;
+        remaining[length][1] = 0;
+        for (int pos = length - 1; pos >= 0; pos--) {
+            int best = UNREACHABLE;
+            int bestAfterCutEnd = UNREACHABLE;
+            for (Segment segment : segments.get(pos)) {
+                int next = remaining[segment.end()][segment.kind() == CUT_END ? 1 : 0];
+                if (next >= UNREACHABLE) continue;
+                best = Math.min(best, next + 1);
+                if (segment.kind() != CUT_FRONT) {
+                    bestAfterCutEnd = Math.min(bestAfterCutEnd, next + 1);
+                }
+            }
+            remaining[pos][0] = best;
+            remaining[pos][1] = bestAfterCutEnd;
+        }
+        return remaining;
+    }
+
+    private final class Walk {
+        private final List<List<Segment>> segments;
+        private final int[][] remaining;
+        private final int length;
+        private final int minStickers;
+        private final int maxStickers;
+        private final int maxResults;
+        private final long deadline;
+        private final List<int[]> results;
+        private boolean stopped;
+
+        private Walk(List<List<Segment>> segments, int[][] remaining, int length, int minStickers,
+                     int maxStickers, int maxResults, long deadline, List<int[]> results) {
+            this.segments = segments;
+            this.remaining = remaining;
+            this.length = length;
+            this.minStickers = minStickers;
+            this.maxStickers = maxStickers;
+            this.maxResults = maxResults;
+            this.deadline = deadline;
+            this.results = results;
+        }
+
+        private void extend(int pos, int previousKind, int previousId, int[] chosen, int depth) {
+            if (pos == length) {
+                if (depth >= minStickers) {
+                    results.add(Arrays.copyOf(chosen, depth));
+                    stopped = results.size() >= maxResults;
+                }
+                return;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                stopped = true;
+                return;
+            }
+
+            for (Segment segment : segments.get(pos)) {
+                if (previousKind == CUT_END && segment.kind() == CUT_FRONT) continue;
+                int afterCutEnd = segment.kind() == CUT_END ? 1 : 0;
+                if (depth + 1 + remaining[segment.end()][afterCutEnd] > maxStickers) continue;
+
+                for (int id : segment.ids()) {
+                    // The same name twice in a row needs two different rarity variants
+                    if (id == previousId && matchIndex.getVariantCount(id) < 2) continue;
+                    chosen[depth] = id;
+                    extend(segment.end(), segment.kind(), id, chosen, depth + 1);
+                    if (stopped) return;
+                }
+            }
+        }
+    }
+}
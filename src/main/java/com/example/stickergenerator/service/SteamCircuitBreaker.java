@@ -0,0 +1,131 @@
+package com.example.stickergenerator.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker around the Steam Market client. While closed it tracks the outcome of the
+ * last windowSize requests and opens once enough of them fail. While open every request is
+ * refused so callers fall back to cached prices immediately. After the open duration a single
+ * caller is let through as a health probe (half-open): its success closes the circuit, its
+ * failure opens it again for another full duration.
+ */
+public class SteamCircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(SteamCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMillis;
+
+    // Guarded by 'this'. Ring of recent outcomes, true = failure
+    private final boolean[] outcomes;
+    private int recorded;
+    private int next;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private long timesOpened;
+    private long rejected;
+
+    public SteamCircuitBreaker(int windowSize, int minimumCalls, double failureRatePercent, long openDurationMillis) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRatePercent / 100.0;
+        this.openDurationMillis = openDurationMillis;
+        this.outcomes = new boolean[this.windowSize];
+    }
+
+    /**
+     * Whether a regular request may go to Steam now; refused while open or while the
+     * half-open probe is running
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.CLOSED) return true;
+        rejected++;
+        return false;
+    }
+
+    /**
+     * Claims the health probe once the open duration has passed. Only one caller gets true;
+     * it must report the probe's outcome through recordSuccess or recordFailure.
+     */
+    public synchronized boolean tryStartProbe() {
+        if (state != State.OPEN || System.currentTimeMillis() - openedAt < openDurationMillis) {
+            return false;
+        }
+        state = State.HALF_OPEN;
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        if (state == State.HALF_OPEN) {
+            log.info("✅ Steam Market is reachable again, closing circuit");
+            reset(State.CLOSED);
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void recordFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state != State.CLOSED) return;
+
+        record(true);
+        if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize) {
+            if (outcomes[next]) failures--;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) failures++;
+        next = (next + 1) % windowSize;
+    }
+
+    private void open() {
+        log.warn("⛔ Steam Market failing, opening circuit for {} ms", openDurationMillis);
+        reset(State.OPEN);
+        openedAt = System.currentTimeMillis();
+        timesOpened++;
+    }
+
+    private void reset(State newState) {
+        state = newState;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state);
+        stats.put("callsInWindow", recorded);
+        stats.put("failureRate", recorded == 0 ? 0.0 : (double) failures / recorded);
+        stats.put("timesOpened", timesOpened);
+        stats.put("rejected", rejected);
+        if (state == State.OPEN) {
+            stats.put("retryInMs", Math.max(0, openedAt + openDurationMillis - System.currentTimeMillis()));
+        }
+        return stats;
+    }
+}
@@ -1,436 +1,389 @@
 package com.example.stickergenerator.service;
 
 import com.example.stickergenerator.model.StickerPrice;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Paths;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Steam Market Service that fetches real market prices through web scraping.
- * Implements caching and proper anti-bot handling for reliable price fetching.
+ * Steam Market Service that serves sticker prices from its cache and fetches missing ones
+ * through the configured PriceProvider (web scraping of the Steam Market by default).
  */
 @Service
 public class SteamMarketService {
+    private static final Logger log = LoggerFactory.getLogger(SteamMarketService.class);
     private static final String STEAM_MARKET_SEARCH_URL = "https://steamcommunity.com/market/search?appid=730&q=";
-    private static final String STEAM_MARKET_LISTINGS_URL = "https://steamcommunity.com/market/listings/730/";
+    private static final String DEFAULT_REQUESTER = "default";
     
-    // Cache to store fetched prices and reduce Steam Market requests
-    private final Map<String, Double> priceCache = new HashMap<>();
+    // Cache to store fetched prices and reduce Steam Market requests; stale entries are
+    // served while a background refresh runs (stale-while-revalidate)
+    private final PriceCache priceCache;
     
-    // Request delay to avoid overwhelming Steam Market (reduced for more aggressive fetching)
-    private static final long REQUEST_DELAY_MS = 1000; // Reduced from 2000ms to 1000ms
-    private long lastRequestTime = 0;
+    // One outstanding fetch per sticker; concurrent callers share its future (single-flight)
+    private final ConcurrentHashMap<String, CompletableFuture<StickerPrice>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder fetchesStarted = new LongAdder();
+    private final LongAdder fetchesCoalesced = new LongAdder();
     
-    @PostConstruct
-    public void init() {
-        System.out.println("🚀 SteamMarketService initialized. Clearing price cache on startup.");
-        clearPriceCache();
+    // Cache hit ratio and how often a lookup ends in a fallback price instead of a market price
+    private final Counter cacheHits;
+    private final Counter cacheStaleHits;
+    private final Counter cacheMisses;
+    private final Counter lookupsFound;
+    private final Counter lookupsFallback;
+    private final Counter lookupsFailed;
+    
+    // Prices persisted across restarts so a deploy starts with a warm cache (null = disabled,
+    // and always for the local provider, whose prices must neither reach nor come from the log)
+    private final PriceStore priceStore;
+    
+    // Where prices come from: the live Steam Market or a local stand-in, see price.provider
+    private final PriceProvider priceProvider;
+    
+    // Background refresh of the most requested prices before they expire, using spare budget only
+    private final PriceDemand demand = new PriceDemand();
+    private final boolean refreshEnabled;
+    private final double refreshBudgetPerMinute;
+    private final int hotSetSize;
+    private final long refreshAheadMillis;
+    // Hot stickers whose last refresh found no market price, and when to try them again
+    private final long refreshFailureBackoffMillis;
+    private final ConcurrentHashMap<String, Long> refreshRetryAt = new ConcurrentHashMap<>();
+    // Only touched by the scheduled refresh
+    private double refreshCredit;
+    private long lastRefreshRun = System.currentTimeMillis();
+    private long lastDemandDecay = System.currentTimeMillis();
+    private final LongAdder refreshesStarted = new LongAdder();
+    private final LongAdder refreshesDeferred = new LongAdder();
+    private final LongAdder refreshesFailed = new LongAdder();
+    
+    // At most one catalog-wide warm-up at a time, see warmPrices
+    private final AtomicBoolean warming = new AtomicBoolean();
+    
+    public SteamMarketService(@Value("${steam.price-cache.ttl-seconds:21600}") long priceTtlSeconds,
+                              @Value("${steam.price-cache.max-size:20000}") int priceCacheMaxSize,
+                              @Value("${steam.price-store.path:}") String priceStorePath,
+                              PriceProvider priceProvider,
+                              @Value("${price.refresh.enabled:true}") boolean refreshEnabled,
+                              @Value("${price.refresh.budget-per-minute:20}") double refreshBudgetPerMinute,
+                              @Value("${price.refresh.hot-set-size:200}") int hotSetSize,
+                              @Value("${price.refresh.ahead-percent:80}") double refreshAheadPercent,
+                              @Value("${price.refresh.failure-backoff-ms:600000}") long refreshFailureBackoffMillis,
+                              MeterRegistry meterRegistry) {
+        this.priceCache = new PriceCache(priceTtlSeconds * 1000, priceCacheMaxSize);
+        this.priceProvider = priceProvider;
+        this.refreshEnabled = refreshEnabled;
+        this.refreshBudgetPerMinute = refreshBudgetPerMinute;
+        this.hotSetSize = hotSetSize;
+        this.refreshAheadMillis = (long) (priceTtlSeconds * 1000 * refreshAheadPercent / 100);
+        this.refreshFailureBackoffMillis = refreshFailureBackoffMillis;
+        this.priceStore = priceStorePath.isBlank() || LocalPriceProvider.NAME.equals(priceProvider.getName())
+            ? null : new PriceStore(Paths.get(priceStorePath));
+        
+        this.cacheHits = priceCacheCounter(meterRegistry, "hit");
+        this.cacheStaleHits = priceCacheCounter(meterRegistry, "stale");
+        this.cacheMisses = priceCacheCounter(meterRegistry, "miss");
+        this.lookupsFound = priceLookupCounter(meterRegistry, "found");
+        this.lookupsFallback = priceLookupCounter(meterRegistry, "fallback");
+        this.lookupsFailed = priceLookupCounter(meterRegistry, "error");
+        Gauge.builder("steam.price.cache.size", priceCache, PriceCache::size)
+            .description("Prices held in the cache")
+            .register(meterRegistry);
+        Gauge.builder("steam.price.in-flight", inFlight, Map::size)
+            .description("Price fetches currently running")
+            .register(meterRegistry);
     }
-
-    public CompletableFuture<StickerPrice> getStickerPrice(String stickerName) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                double price = fetchRealMarketPrice(stickerName);
-                String searchUrl = STEAM_MARKET_SEARCH_URL + URLEncoder.encode(stickerName, StandardCharsets.UTF_8);
-                return new StickerPrice(stickerName, price, "USD", searchUrl);
-            } catch (Exception e) {
-                System.err.println("❌ Failed to fetch price for " + stickerName + ": " + e.getMessage());
-                // Fallback to reasonable default
-                String searchUrl = STEAM_MARKET_SEARCH_URL + URLEncoder.encode(stickerName, StandardCharsets.UTF_8);
-                return new StickerPrice(stickerName, 0.10, "USD", searchUrl);
-            }
-        });
+    
+    private static Counter priceCacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("steam.price.cache")
+            .description("Price lookups by cache outcome")
+            .tag("result", result)
+            .register(meterRegistry);
     }
     
-    /**
-     * Fetches real market price from Steam Market through web scraping
-     */
-    private double fetchRealMarketPrice(String stickerName) {
-        // Check cache first
-        if (priceCache.containsKey(stickerName)) {
-            double cachedPrice = priceCache.get(stickerName);
-            System.out.println("💾 Using cached price for " + stickerName + ": $" + cachedPrice);
-            return cachedPrice;
+    private static Counter priceLookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("steam.price.lookups")
+            .description("Price fetches by outcome; fallback and error return a default price")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void init() {
+        if (priceStore == null) {
+            log.info("🚀 SteamMarketService initialized with the {} price provider and without a price store, "
+                + "starting with an empty cache.", priceProvider.getName());
+            return;
         }
         
-        System.out.println("🌐 Fetching real market price for: " + stickerName);
-        
-        // FIRST: Try a simple test to see if we can reach Steam at all
+        long started = System.nanoTime();
         try {
-            System.out.println("🔬 Testing Steam Market connectivity...");
-            String testUrl = "https://steamcommunity.com/market/";
-            Document testDoc = Jsoup.connect(testUrl)
-                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36")
-                    .timeout(5000)
-                    .get();
-            System.out.println("✅ Steam Market is reachable. Title: " + testDoc.title());
-        } catch (Exception e) {
-            System.err.println("❌ Cannot reach Steam Market at all: " + e.getMessage());
-            return getMinimalFallback();
+            int lines = priceStore.load(priceCache);
+            log.info("🚀 SteamMarketService initialized. Restored {} prices from {} log lines in {} ms ({})",
+                priceCache.size(), lines, String.format("%.1f", (System.nanoTime() - started) / 1e6), priceStore.getPath());
+        } catch (IOException e) {
+            log.error("❌ Could not read price store {}, starting cold: {}", priceStore.getPath(), e.getMessage());
         }
-        
+    }
+    
+    /**
+     * Rewrites the price log with one line per cached sticker so it stops growing with every fetch
+     */
+    @Scheduled(fixedDelayString = "${steam.price-store.compact-interval-ms:3600000}",
+               initialDelayString = "${steam.price-store.compact-interval-ms:3600000}")
+    public void compactPriceStore() {
+        if (priceStore == null) return;
         try {
-            // Multiple scraping attempts with different strategies
-            double price = 0.0;
-            
-            // Strategy 1: Direct listings page with enhanced headers
-            try {
-                enforceRateLimit();
-                price = scrapeListingsPageEnhanced(stickerName);
-                if (price > 0) {
-                    priceCache.put(stickerName, price);
-                    System.out.println("💰 Real market price (enhanced listings) for " + stickerName + ": $" + price);
-                    return price;
-                }
-            } catch (Exception e) {
-                System.out.println("⚠️ Enhanced listings page failed for " + stickerName + ": " + e.getMessage());
-            }
-            
-            // Strategy 2: Try with very simple URL encoding
-            try {
-                enforceRateLimit();
-                String simpleName = stickerName.replace("Sticker | ", "").replace(" | ", " ");
-                price = scrapeListingsPageSimple(simpleName);
-                if (price > 0) {
-                    priceCache.put(stickerName, price);
-                    System.out.println("💰 Real market price (simple) for " + stickerName + ": $" + price);
-                    return price;
-                }
-            } catch (Exception e) {
-                System.out.println("⚠️ Simple scraping failed for " + stickerName + ": " + e.getMessage());
-            }
-            
-            // Strategy 3: Use different user agent
-            try {
-                enforceRateLimit();
-                price = scrapeWithDifferentAgent(stickerName);
-                if (price > 0) {
-                    priceCache.put(stickerName, price);
-                    System.out.println("💰 Real market price (different agent) for " + stickerName + ": $" + price);
-                    return price;
-                }
-            } catch (Exception e) {
-                System.out.println("⚠️ Different agent failed for " + stickerName + ": " + e.getMessage());
-            }
-            
-            System.out.println("❌ All scraping strategies failed for " + stickerName + ", using minimal fallback");
-            return getMinimalFallback();
-            
-        } catch (Exception e) {
-            System.err.println("❌ Error scraping Steam Market for " + stickerName + ": " + e.getMessage());
-            return getMinimalFallback();
+            priceStore.compact(priceCache.snapshot());
+        } catch (IOException e) {
+            log.error("❌ Price store compaction failed: {}", e.getMessage());
         }
     }
     
     /**
-     * Enhanced listings page scraper with better anti-bot protection bypass
+     * Refreshes the most requested prices that are missing or close to expiring, so user
+     * requests keep hitting a warm cache. Spends at most the configured budget per minute and
+     * stops while user lookups are queued; the refreshes it starts are queued behind any user
+     * lookup that arrives later, retries included. A sticker whose refresh found no market price
+     * has no cache entry to keep it off the list, so it is skipped for the failure back-off
+     * instead of spending the budget on it every run.
      */
-    private double scrapeListingsPageEnhanced(String stickerName) throws IOException {
-        String encodedName = URLEncoder.encode(stickerName, StandardCharsets.UTF_8);
-        String url = STEAM_MARKET_LISTINGS_URL + encodedName;
-        
-        System.out.println("🔍 Enhanced scraping listings page: " + url);
-        
-        Document doc = Jsoup.connect(url)
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36")
-                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,image/apng,*/*;q=0.8")
-                .header("Accept-Language", "en-US,en;q=0.9")
-                .header("Accept-Encoding", "gzip, deflate, br")
-                .header("DNT", "1")
-                // REMOVED: .header("Connection", "keep-alive") - This is restricted in Java
-                .header("Upgrade-Insecure-Requests", "1")
-                .header("Sec-Fetch-Dest", "document")
-                .header("Sec-Fetch-Mode", "navigate")
-                .header("Sec-Fetch-Site", "none")
-                .header("Sec-Fetch-User", "?1")
-                .header("Cache-Control", "max-age=0")
-                .timeout(8000)
-                .followRedirects(true)
-                .get();
-        
-        System.out.println("📄 Page title: " + doc.title());
-        System.out.println("📄 Page text length: " + doc.text().length());
-        
-        // DEBUG: Save HTML content for inspection if no prices found
-        if (doc.text().length() < 500) {
-            System.out.println("⚠️ Very short page content, likely an error page:");
-            System.out.println("📝 Full HTML: " + doc.outerHtml());
+    @Scheduled(fixedDelayString = "${price.refresh.interval-ms:10000}",
+               initialDelayString = "${price.refresh.interval-ms:10000}")
+    public void refreshHotPrices() {
+        if (!refreshEnabled) return;
+        
+        long now = System.currentTimeMillis();
+        if (now - lastDemandDecay >= 60_000) {
+            demand.decay();
+            lastDemandDecay = now;
         }
         
-        // DETAILED HTML INSPECTION - Let's see what Steam is actually returning
-        System.out.println("🔍 HTML INSPECTION:");
-        System.out.println("🔍 Body classes: " + doc.body().className());
+        // Stickers that fell out of the hot set would otherwise stay here for good
+        refreshRetryAt.values().removeIf(retryAt -> retryAt <= now);
         
-        // Look for any element containing price-like text
-        Elements allElements = doc.select("*");
-        for (Element element : allElements) {
-            String text = element.ownText().trim();
-            if (text.contains("$") || text.contains("€") || text.contains("£")) {
-                System.out.println("💰 Found $ element: " + element.tagName() + " class='" + element.className() + "' text='" + text + "'");
-            }
-        }
-        
-        // Check for common Steam Market selectors
-        String[] selectors = {
-            ".market_listing_price_with_fee",
-            ".market_listing_price",
-            ".market_table_value",
-            ".normal_price",
-            ".sale_price",
-            "[id*=price]",
-            "[class*=price]",
-            "span:contains($)",
-            "div:contains($)"
-        };
-        
-        for (String selector : selectors) {
-            Elements elements = doc.select(selector);
-            if (!elements.isEmpty()) {
-                System.out.println("🎯 Found elements with selector '" + selector + "': " + elements.size());
-                for (Element element : elements) {
-                    System.out.println("   - " + element.tagName() + " class='" + element.className() + "' text='" + element.text() + "'");
-                }
+        // Unused budget carries over, but never more than one minute's worth
+        refreshCredit = Math.min(refreshBudgetPerMinute, refreshCredit + refreshBudgetPerMinute * elapsedMinutes(now));
+        for (String stickerName : demand.hottest(hotSetSize)) {
+            if (refreshCredit < 1) return;
+            
+            PriceCache.Entry cached = priceCache.get(stickerName);
+            if (cached != null && now - cached.fetchedAt() < refreshAheadMillis) continue;
+            if (inFlight.containsKey(stickerName)) continue;
+            if (refreshRetryAt.containsKey(stickerName)) continue;
+            
+            if (!priceProvider.hasSpareCapacity()) {
+                refreshesDeferred.increment();
+                return;
             }
+            refreshCredit -= 1;
+            refreshesStarted.increment();
+            fetchShared(stickerName, PriceProvider.BACKGROUND_REQUESTER)
+                .whenComplete((price, error) -> backOffIfNotRefreshed(stickerName, cached));
         }
-        
-        // Look for the lowest price (first sell order)
-        Elements priceElements = doc.select(".market_listing_price_with_fee");
-        if (!priceElements.isEmpty()) {
-            String priceText = priceElements.first().text().trim();
-            System.out.println("💰 Found price element: " + priceText);
-            return extractPrice(priceText);
-        }
-        
-        // Alternative selector for price
-        Elements altPriceElements = doc.select(".market_listing_price");
-        if (!altPriceElements.isEmpty()) {
-            String priceText = altPriceElements.first().text().trim();
-            System.out.println("💰 Found alt price element: " + priceText);
-            return extractPrice(priceText);
+    }
+    
+    /**
+     * Fallback prices are not cached, so a refresh that left the cache entry as it was found
+     * nothing on the market
+     */
+    private void backOffIfNotRefreshed(String stickerName, PriceCache.Entry before) {
+        PriceCache.Entry after = priceCache.get(stickerName);
+        if (after == null || (before != null && after.fetchedAt() <= before.fetchedAt())) {
+            refreshesFailed.increment();
+            refreshRetryAt.put(stickerName, System.currentTimeMillis() + refreshFailureBackoffMillis);
         }
-        
-        // Try broader selectors if specific ones fail
-        Elements broadElements = doc.select("*:contains($)");
-        if (!broadElements.isEmpty()) {
-            System.out.println("💰 Found broad $ elements: " + broadElements.size());
-            for (Element element : broadElements) {
-                String text = element.ownText().trim();
-                if (text.contains("$") && text.length() < 20) { // Likely a price
-                    System.out.println("💰 Potential price: " + text);
-                    double price = extractPrice(text);
-                    if (price > 0) {
-                        return price;
-                    }
-                }
-            }
+    }
+    
+    private double elapsedMinutes(long now) {
+        double minutes = (now - lastRefreshRun) / 60_000.0;
+        lastRefreshRun = now;
+        return minutes;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (priceStore != null) {
+            priceStore.close();
         }
-        
-        System.out.println("❌ No price elements found on page");
-        return 0.0;
     }
     
     /**
-     * Simple listings page scraper with minimal name processing
+     * Caches a freshly scraped price and appends it to the on-disk store
      */
-    private double scrapeListingsPageSimple(String simpleName) throws IOException {
-        String encodedName = URLEncoder.encode(simpleName, StandardCharsets.UTF_8);
-        String url = STEAM_MARKET_LISTINGS_URL + encodedName;
-        
-        System.out.println("🔍 Simple scraping listings page: " + url);
-        
-        Document doc = Jsoup.connect(url)
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:109.0) Gecko/20100101 Firefox/121.0")
-                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
-                .header("Accept-Language", "en-US,en;q=0.5")
-                .timeout(6000)
-                .get();
-        
-        System.out.println("📄 Simple page title: " + doc.title());
-        
-        // Look for price elements
-        Elements priceElements = doc.select(".market_listing_price_with_fee, .market_listing_price");
-        if (!priceElements.isEmpty()) {
-            String priceText = priceElements.first().text().trim();
-            System.out.println("💰 Found simple price: " + priceText);
-            return extractPrice(priceText);
+    private void recordPrice(String stickerName, double price) {
+        long fetchedAt = System.currentTimeMillis();
+        priceCache.put(stickerName, price, fetchedAt);
+        if (priceStore != null) {
+            priceStore.append(stickerName, price, fetchedAt);
         }
-        
-        System.out.println("❌ No price found in simple scraping");
-        return 0.0;
+    }
+
+    public CompletableFuture<StickerPrice> getStickerPrice(String stickerName) {
+        return getStickerPrice(stickerName, DEFAULT_REQUESTER);
     }
     
     /**
-     * Scraper with different user agent to avoid detection
+     * Last known price of the sticker, however old, or 0 when it was never fetched. Never
+     * triggers a lookup, so it is cheap enough to estimate every candidate combination.
      */
-    private double scrapeWithDifferentAgent(String stickerName) throws IOException {
-        String encodedName = URLEncoder.encode(stickerName, StandardCharsets.UTF_8);
-        String url = STEAM_MARKET_LISTINGS_URL + encodedName;
-        
-        System.out.println("🔍 Different agent scraping: " + url);
-        
-        Document doc = Jsoup.connect(url)
-                .userAgent("Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.1 Safari/605.1.15")
-                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
-                .header("Accept-Language", "en-us")
-                .timeout(5000)
-                .get();
-        
-        System.out.println("📄 Different agent page title: " + doc.title());
-        
-        // Look for price elements
-        Elements priceElements = doc.select(".market_listing_price_with_fee, .market_listing_price");
-        if (!priceElements.isEmpty()) {
-            String priceText = priceElements.first().text().trim();
-            System.out.println("💰 Found different agent price: " + priceText);
-            return extractPrice(priceText);
-        }
-        
-        System.out.println("❌ No price found with different agent");
-        return 0.0;
+    public double getKnownPrice(String stickerName) {
+        PriceCache.Entry cached = priceCache.get(stickerName);
+        return cached != null ? cached.price() : 0.0;
     }
     
     /**
-     * Scrapes the Steam Market search page for item price
+     * Price lookup on behalf of a requester; requesters share Steam's rate limit round-robin,
+     * so a request pricing many stickers does not hold up the others
      */
-    private double scrapeSearchPage(String stickerName) throws IOException {
-        String encodedName = URLEncoder.encode(stickerName, StandardCharsets.UTF_8);
-        String url = STEAM_MARKET_SEARCH_URL + encodedName;
-        
-        System.out.println("🔍 Scraping search page: " + url);
-        
-        Document doc = Jsoup.connect(url)
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8")
-                .header("Accept-Language", "en-US,en;q=0.5")
-                .timeout(10000)
-                .get();
-        
-        // Look for search results with prices
-        Elements searchResults = doc.select(".market_listing_row");
-        for (Element result : searchResults) {
-            String itemName = result.select(".market_listing_item_name").text();
-            
-            // Check if this result matches our sticker
-            if (itemName.toLowerCase().contains(stickerName.toLowerCase()) || 
-                stickerName.toLowerCase().contains(itemName.toLowerCase())) {
-                
-                Elements priceElements = result.select(".market_listing_price");
-                if (!priceElements.isEmpty()) {
-                    String priceText = priceElements.first().text().trim();
-                    double price = extractPrice(priceText);
-                    if (price > 0) {
-                        System.out.println("✅ Found matching item: " + itemName + " - $" + price);
-                        return price;
-                    }
-                }
+    public CompletableFuture<StickerPrice> getStickerPrice(String stickerName, String requester) {
+        demand.record(stickerName);
+        PriceCache.Entry cached = priceCache.get(stickerName);
+        if (cached != null) {
+            if (priceCache.isFresh(cached)) {
+                cacheHits.increment();
+                log.debug("💾 Using cached price for {}: ${}", stickerName, cached.price());
+            } else {
+                cacheStaleHits.increment();
+                log.debug("♻️ Serving stale price for {}: ${} while refreshing", stickerName, cached.price());
+                refreshInBackground(stickerName, requester);
             }
+            return CompletableFuture.completedFuture(new StickerPrice(stickerName, cached.price(), "USD", getMarketUrl(stickerName)));
         }
         
-        return 0.0;
+        cacheMisses.increment();
+        // copy() so one caller cancelling or completing its future cannot affect the others
+        return fetchShared(stickerName, requester).copy();
     }
     
     /**
-     * Enforces rate limiting to avoid overwhelming Steam Market (reduced for aggressive fetching)
+     * Steam Market search link for the sticker, shown next to its price
      */
-    private void enforceRateLimit() {
-        long currentTime = System.currentTimeMillis();
-        long timeSinceLastRequest = currentTime - lastRequestTime;
-        
-        if (timeSinceLastRequest < REQUEST_DELAY_MS) {
-            try {
-                long sleepTime = REQUEST_DELAY_MS - timeSinceLastRequest;
-                System.out.println("⏱️ Rate limiting: waiting " + sleepTime + "ms (aggressive mode)");
-                Thread.sleep(sleepTime);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-        
-        lastRequestTime = System.currentTimeMillis();
+    public static String getMarketUrl(String stickerName) {
+        return STEAM_MARKET_SEARCH_URL + URLEncoder.encode(stickerName, StandardCharsets.UTF_8);
     }
     
     /**
-     * Provides fallback pricing when web scraping fails
+     * Re-fetches an expired price off the request path; joins the fetch already running, if any
      */
-    private double getMinimalFallback() {
-        return 0.05; // Default fallback
+    private void refreshInBackground(String stickerName, String requester) {
+        fetchShared(stickerName, requester);
     }
     
     /**
-     * Extracts price from Steam Market price text
+     * Starts a fetch for the sticker, or returns the one already in flight for it
      */
-    private double extractPrice(String priceText) {
-        if (priceText == null || priceText.trim().isEmpty()) {
-            return 0.0;
+    private CompletableFuture<StickerPrice> fetchShared(String stickerName, String requester) {
+        CompletableFuture<StickerPrice> created = new CompletableFuture<>();
+        CompletableFuture<StickerPrice> running = inFlight.putIfAbsent(stickerName, created);
+        if (running != null) {
+            fetchesCoalesced.increment();
+            return running;
         }
         
-        System.out.println("🏷️ Extracting price from: '" + priceText + "'");
-        
-        // Handle different currency formats
-        // USD: $1.23, EUR: €1,23, GBP: £1.23, etc.
-        
-        // Remove common prefixes/suffixes
-        String cleanText = priceText.replace("Starting at:", "")
-                                   .replace("Buy now for", "")
-                                   .replace("Lowest price:", "")
-                                   .trim();
-        
-        // Pattern to match various price formats
-        Pattern pricePattern = Pattern.compile("([€$£¥₹])\\s*([0-9]{1,3}(?:[,\\s][0-9]{3})*(?:[.,][0-9]{1,2})?)");
-        Matcher matcher = pricePattern.matcher(cleanText);
-        
-        if (matcher.find()) {
-            String currency = matcher.group(1);
-            String priceStr = matcher.group(2).replace(",", "").replace(" ", "");
-            
-            try {
-                double price = Double.parseDouble(priceStr);
-                
-                // Convert to USD if needed (rough conversion)
-                if (currency.equals("€")) price *= 1.1;
-                else if (currency.equals("£")) price *= 1.25;
-                else if (currency.equals("₹")) price *= 0.012; // INR to USD
-                
-                return Math.round(price * 100.0) / 100.0;
-            } catch (NumberFormatException e) {
-                System.err.println("❌ Could not parse price: " + priceStr);
+        fetchesStarted.increment();
+        String searchUrl = getMarketUrl(stickerName);
+        fetchRealMarketPrice(stickerName, requester)
+            .thenApply(price -> new StickerPrice(stickerName, price, "USD", searchUrl))
+            .exceptionally(e -> {
+                lookupsFailed.increment();
+                log.warn("❌ Failed to fetch price for {}: {}", stickerName, e.getMessage());
+                // Fallback to reasonable default
+                return new StickerPrice(stickerName, 0.10, "USD", searchUrl);
+            })
+            .whenComplete((price, error) -> {
+                // Leave the map before completing so late callers start from the fresh cache
+                inFlight.remove(stickerName, created);
+                if (error != null) {
+                    created.completeExceptionally(error);
+                } else {
+                    created.complete(price);
+                }
+            });
+        return created;
+    }
+    
+    /**
+     * Asks the price provider and caches what it finds; stickers it has no price for get the
+     * minimal fallback, which is not cached
+     */
+    private CompletableFuture<Double> fetchRealMarketPrice(String stickerName, String requester) {
+        return priceProvider.fetchPrice(stickerName, requester).thenApply(price -> {
+            if (price > 0) {
+                lookupsFound.increment();
+                recordPrice(stickerName, price);
+                return price;
             }
-        }
-        
-        // Fallback pattern for numbers without currency symbols
-        Pattern numberPattern = Pattern.compile("([0-9]+(?:[.,][0-9]{1,2})?)");
-        Matcher numberMatcher = numberPattern.matcher(cleanText);
-        
-        if (numberMatcher.find()) {
-            try {
-                double price = Double.parseDouble(numberMatcher.group(1).replace(",", "."));
-                return Math.round(price * 100.0) / 100.0;
-            } catch (NumberFormatException e) {
-                System.err.println("❌ Could not parse number: " + numberMatcher.group(1));
+            lookupsFallback.increment();
+            return getMinimalFallback();
+        });
+    }
+    
+    /**
+     * Fetches prices for many stickers at once through the provider's batch lookup (one market
+     * search page per player for Steam). Stickers already fresh in the cache are skipped, and
+     * stickers the batch could not price are left for the regular per-sticker lookup.
+     * Completes with the prices that were found.
+     */
+    public CompletableFuture<Map<String, Double>> fetchPricesInBatch(Collection<String> stickerNames, String requester) {
+        List<String> stale = new ArrayList<>();
+        for (String stickerName : stickerNames) {
+            PriceCache.Entry cached = priceCache.get(stickerName);
+            if (cached == null || !priceCache.isFresh(cached)) {
+                stale.add(stickerName);
             }
         }
         
-        return 0.0;
+        return priceProvider.fetchPrices(stale, requester).thenApply(found -> {
+            found.forEach(this::recordPrice);
+            return found;
+        });
     }
     
+    /**
+     * Warms the cache for many stickers in the background: the batch runs as
+     * PriceProvider.BACKGROUND_REQUESTER, so it only uses what user lookups leave over.
+     * Returns false without starting anything while an earlier warm-up is still running.
+     */
+    public boolean warmPrices(Collection<String> stickerNames) {
+        if (!warming.compareAndSet(false, true)) {
+            return false;
+        }
+        fetchPricesInBatch(stickerNames, PriceProvider.BACKGROUND_REQUESTER)
+            .whenComplete((found, error) -> warming.set(false));
+        return true;
+    }
+    
+    /**
+     * Provides fallback pricing when web scraping fails
+     */
+    private double getMinimalFallback() {
+        return 0.05; // Default fallback
+    }
+    
+    
     /**
      * Clears the price cache for fresh price fetching
      */
     public void clearPriceCache() {
         priceCache.clear();
-        System.out.println("🗑️ Price cache cleared - fresh prices will be fetched from Steam Market");
+        log.info("🗑️ Price cache cleared - fresh prices will be fetched from Steam Market");
     }
     
     /**
@@ -439,5 +392,42 @@ public class SteamMarketService {
     public int getCacheSize() {
         return priceCache.size();
     }
+    
+    /**
+     * Fetches started versus requests that joined a fetch already in flight
+     */
+    public Map<String, Object> getFetchStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", inFlight.size());
+        stats.put("fetchesStarted", fetchesStarted.sum());
+        stats.put("fetchesCoalesced", fetchesCoalesced.sum());
+        return stats;
+    }
+    
+    /**
+     * Demand tracking and background refresh counters
+     */
+    public Map<String, Object> getRefreshStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", refreshEnabled);
+        stats.put("trackedStickers", demand.size());
+        stats.put("hotSetSize", hotSetSize);
+        stats.put("budgetPerMinute", refreshBudgetPerMinute);
+        stats.put("refreshesStarted", refreshesStarted.sum());
+        stats.put("refreshesDeferred", refreshesDeferred.sum());
+        stats.put("refreshesFailed", refreshesFailed.sum());
+        stats.put("backingOff", refreshRetryAt.size());
+        stats.put("warming", warming.get());
+        return stats;
+    }
+    
+    /**
+     * Counters of the active price provider
+     */
+    public Map<String, Object> getProviderStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", priceProvider.getName());
+        stats.putAll(priceProvider.getStats());
+        return stats;
+    }
 }
-
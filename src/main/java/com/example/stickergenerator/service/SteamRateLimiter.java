@@ -0,0 +1,155 @@
+package com.example.stickergenerator.service;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket shared by every outbound Steam request. Callers get a future that completes
+ * when a permit is granted, so no thread sleeps while waiting. Waiters queue per requester
+ * and permits are handed out round-robin across requesters, so one large request cannot
+ * starve the others. Waiters of PriceProvider.BACKGROUND_REQUESTER queue separately and only
+ * get a permit while no user waiter is queued.
+ */
+public class SteamRateLimiter {
+    private final double permitsPerNano;
+    private final double burst;
+    private final ScheduledExecutorService scheduler;
+
+    // Guarded by 'this'
+    private double tokens;
+    private long lastRefill;
+    private final LinkedHashMap<String, ArrayDeque<Waiter>> queues = new LinkedHashMap<>();
+    private int queueDepth;
+    private final ArrayDeque<Waiter> background = new ArrayDeque<>();
+    private boolean drainScheduled;
+
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private volatile long maxWaitNanos;
+    private final Timer waitTimer;
+
+    private record Waiter(CompletableFuture<Void> permit, long enqueuedAt) {}
+
+    public SteamRateLimiter(double permitsPerSecond, int burst, Timer waitTimer) {
+        this.waitTimer = waitTimer;
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000.0;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefill = System.nanoTime();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "steam-rate-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Completes once a permit is available for this requester. Dependent stages should use the
+     * *Async variants so the work does not run on the limiter's scheduling thread.
+     */
+    public CompletableFuture<Void> acquire(String requester) {
+        Waiter waiter = new Waiter(new CompletableFuture<>(), System.nanoTime());
+        synchronized (this) {
+            if (PriceProvider.BACKGROUND_REQUESTER.equals(requester)) {
+                background.add(waiter);
+            } else {
+                queues.computeIfAbsent(requester, k -> new ArrayDeque<>()).add(waiter);
+                queueDepth++;
+            }
+        }
+        drain();
+        return waiter.permit();
+    }
+
+    /**
+     * Whether no user waiter is queued, so background work queued now would not hold anyone up.
+     * Background permits are granted behind user waiters anyway; this keeps the background
+     * queue from growing while users keep the limiter busy.
+     */
+    public synchronized boolean hasSpareCapacity() {
+        return queueDepth == 0;
+    }
+
+    private void drain() {
+        List<Waiter> ready = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            while (tokens >= 1 && queueDepth > 0) {
+                Map.Entry<String, ArrayDeque<Waiter>> next = queues.entrySet().iterator().next();
+                String requester = next.getKey();
+                ArrayDeque<Waiter> waiting = next.getValue();
+                ready.add(waiting.poll());
+                queues.remove(requester);
+                if (!waiting.isEmpty()) {
+                    // Back of the line: the next permit goes to a different requester
+                    queues.put(requester, waiting);
+                }
+                queueDepth--;
+                tokens -= 1;
+            }
+            // Only what users leave over goes to background work
+            while (tokens >= 1 && !background.isEmpty()) {
+                ready.add(background.poll());
+                tokens -= 1;
+            }
+            if ((queueDepth > 0 || !background.isEmpty()) && !drainScheduled) {
+                long delay = (long) Math.ceil((1 - tokens) / permitsPerNano);
+                drainScheduled = true;
+                scheduler.schedule(() -> {
+                    synchronized (this) {
+                        drainScheduled = false;
+                    }
+                    drain();
+                }, Math.max(delay, 1), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        // Complete outside the lock so continuations never run while holding it
+        long now = System.nanoTime();
+        for (Waiter waiter : ready) {
+            long waited = now - waiter.enqueuedAt();
+            granted.increment();
+            totalWaitNanos.add(waited);
+            waitTimer.record(waited, TimeUnit.NANOSECONDS);
+            if (waited > maxWaitNanos) {
+                maxWaitNanos = waited;
+            }
+            waiter.permit().complete(null);
+        }
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+
+    public synchronized int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Queue depth, permits granted and wait times, for tuning rate and burst
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("queueDepth", queueDepth);
+            stats.put("waitingRequesters", queues.size());
+            stats.put("backgroundQueueDepth", background.size());
+            stats.put("availableTokens", Math.floor(tokens));
+        }
+        long grantedCount = granted.sum();
+        stats.put("permitsGranted", grantedCount);
+        stats.put("averageWaitMs", grantedCount == 0 ? 0.0 : totalWaitNanos.sum() / 1e6 / grantedCount);
+        stats.put("maxWaitMs", maxWaitNanos / 1e6);
+        return stats;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
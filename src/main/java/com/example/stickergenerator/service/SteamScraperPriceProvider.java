@@ -0,0 +1,601 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.Sticker;
+import com.example.stickergenerator.tracing.RequestTrace;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prices stickers by scraping the live Steam Market. Every request goes through one shared
+ * rate limiter and circuit breaker, and the blocking Jsoup calls run on their own executor.
+ */
+@Component
+@ConditionalOnProperty(name = "price.provider", havingValue = SteamScraperPriceProvider.NAME, matchIfMissing = true)
+public class SteamScraperPriceProvider implements PriceProvider {
+    private static final Logger log = LoggerFactory.getLogger(SteamScraperPriceProvider.class);
+    
+    static final String NAME = "steam";
+    
+    private static final String STEAM_MARKET_SEARCH_URL = "https://steamcommunity.com/market/search?appid=730&q=";
+    private static final String STEAM_MARKET_LISTINGS_URL = "https://steamcommunity.com/market/listings/730/";
+    
+    // Results shown on one market search page
+    private static final int SEARCH_PAGE_ROWS = 10;
+    
+    // Prices as Steam formats them (USD: $1.23, EUR: €1,23, GBP: £1.23, etc.), and bare numbers
+    private static final Pattern PRICE_PATTERN =
+        Pattern.compile("([€$£¥₹])\\s*([0-9]{1,3}(?:[,\\s][0-9]{3})*(?:[.,][0-9]{1,2})?)");
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("([0-9]+(?:[.,][0-9]{1,2})?)");
+    
+    // One token bucket for every outbound Steam request, shared fairly between callers
+    private final SteamRateLimiter rateLimiter;
+    
+    // Stops sending requests while Steam is failing so lookups fall back without waiting
+    private final SteamCircuitBreaker circuitBreaker;
+    
+    // Blocking Jsoup calls run here rather than on the common pool shared with parallel streams
+    private final PriceFetchExecutor fetchExecutor;
+    
+    private final LongAdder searchPagesFetched = new LongAdder();
+    private final LongAdder batchPricesFilled = new LongAdder();
+    
+    private final MeterRegistry meterRegistry;
+    
+    @FunctionalInterface
+    private interface Scraper {
+        double scrape(SteamScraperPriceProvider provider, String stickerName) throws IOException;
+    }
+    
+    // tag names the strategy in the steam.scrape metric
+    private record ScrapeStrategy(String label, String tag, Scraper scraper) {}
+    
+    // Multiple scraping attempts with different strategies, tried in this order
+    private static final List<ScrapeStrategy> SCRAPE_STRATEGIES = List.of(
+        // Strategy 1: Direct listings page with enhanced headers
+        new ScrapeStrategy("enhanced listings", "enhanced", SteamScraperPriceProvider::scrapeListingsPageEnhanced),
+        // Strategy 2: Try with very simple URL encoding
+        new ScrapeStrategy("simple", "simple", (provider, stickerName) ->
+            provider.scrapeListingsPageSimple(stickerName.replace("Sticker | ", "").replace(" | ", " "))),
+        // Strategy 3: Use different user agent
+        new ScrapeStrategy("different agent", "different-agent", SteamScraperPriceProvider::scrapeWithDifferentAgent)
+    );
+    
+    public SteamScraperPriceProvider(@Value("${steam.rate-limit.permits-per-second:1.0}") double permitsPerSecond,
+                                     @Value("${steam.rate-limit.burst:1}") int burst,
+                                     @Value("${steam.fetch.executor:platform}") String executorMode,
+                                     @Value("${steam.fetch.pool-size:8}") int poolSize,
+                                     @Value("${steam.fetch.queue-capacity:500}") int queueCapacity,
+                                     @Value("${steam.circuit-breaker.window-size:20}") int breakerWindow,
+                                     @Value("${steam.circuit-breaker.minimum-calls:5}") int breakerMinimumCalls,
+                                     @Value("${steam.circuit-breaker.failure-rate-percent:50}") double breakerFailureRate,
+                                     @Value("${steam.circuit-breaker.open-seconds:30}") long breakerOpenSeconds,
+                                     MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.rateLimiter = new SteamRateLimiter(permitsPerSecond, burst, Timer.builder("steam.rate-limit.wait")
+            .description("Time a Steam request waited for its rate-limit permit")
+            .register(meterRegistry));
+        Gauge.builder("steam.rate-limit.queue", rateLimiter, SteamRateLimiter::getQueueDepth)
+            .description("Steam requests waiting for a permit")
+            .register(meterRegistry);
+        this.fetchExecutor = new PriceFetchExecutor(executorMode, poolSize, queueCapacity,
+            Timer.builder("steam.fetch.queue-wait")
+                .description("Time a scrape waited for a fetch thread")
+                .register(meterRegistry));
+        Gauge.builder("steam.fetch.active", fetchExecutor, PriceFetchExecutor::getActive)
+            .description("Scrapes running on the fetch executor")
+            .register(meterRegistry);
+        Gauge.builder("steam.fetch.queued", fetchExecutor, PriceFetchExecutor::getQueued)
+            .description("Scrapes waiting for a fetch thread")
+            .register(meterRegistry);
+        FunctionCounter.builder("steam.fetch.completed", fetchExecutor, PriceFetchExecutor::getCompleted)
+            .description("Scrapes finished on the fetch executor")
+            .register(meterRegistry);
+        FunctionCounter.builder("steam.fetch.rejected", fetchExecutor, PriceFetchExecutor::getRejected)
+            .description("Scrapes refused because the fetch queue was full")
+            .register(meterRegistry);
+        this.circuitBreaker = new SteamCircuitBreaker(breakerWindow, breakerMinimumCalls,
+            breakerFailureRate, breakerOpenSeconds * 1000);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        rateLimiter.shutdown();
+        fetchExecutor.shutdown();
+    }
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    
+    /**
+     * Fetches real market price from Steam Market through web scraping. Each strategy waits for
+     * a rate-limit permit without holding a thread and only runs if the previous one found nothing.
+     * While the circuit is open this gives up at once; once it may close again, the first
+     * caller checks Steam's health for everyone.
+     */
+    @Override
+    public CompletableFuture<Double> fetchPrice(String stickerName, String requester) {
+        log.debug("🌐 Fetching real market price for: {}", stickerName);
+        
+        // Scrapes run on the fetch executor; they report to the trace of the request that started them
+        RequestTrace trace = RequestTrace.current();
+        if (!circuitBreaker.tryStartProbe()) {
+            return scrapeInOrder(stickerName, requester, 0, trace);
+        }
+        return rateLimiter.acquire(requester)
+            .thenApplyAsync(permit -> isSteamReachable(), fetchExecutor)
+            .exceptionally(e -> {
+                // The probe never ran (fetch pool saturated); leave the circuit open and retry later
+                circuitBreaker.recordFailure();
+                return false;
+            })
+            .thenCompose(reachable -> reachable
+                ? scrapeInOrder(stickerName, requester, 0, trace)
+                : CompletableFuture.completedFuture(0.0));
+    }
+    
+    /**
+     * Health probe run while the circuit is half-open; its result decides for every request
+     */
+    private boolean isSteamReachable() {
+        try {
+            log.info("🔬 Testing Steam Market connectivity...");
+            String testUrl = "https://steamcommunity.com/market/";
+            Document testDoc = Jsoup.connect(testUrl)
+                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36")
+                    .timeout(5000)
+                    .get();
+            log.info("✅ Steam Market is reachable. Title: {}", testDoc.title());
+            circuitBreaker.recordSuccess();
+            return true;
+        } catch (Exception e) {
+            log.warn("❌ Cannot reach Steam Market at all: {}", e.getMessage());
+            circuitBreaker.recordFailure();
+            return false;
+        }
+    }
+    
+    /**
+     * Runs the scraping strategies from the given one onwards until one finds a price
+     */
+    private CompletableFuture<Double> scrapeInOrder(String stickerName, String requester, int strategy,
+                                                    RequestTrace trace) {
+        if (strategy == SCRAPE_STRATEGIES.size()) {
+            log.debug("❌ All scraping strategies failed for {}", stickerName);
+            return CompletableFuture.completedFuture(0.0);
+        }
+        
+        if (!circuitBreaker.allowRequest()) {
+            log.debug("⛔ Steam Market circuit open, skipping {}", stickerName);
+            return CompletableFuture.completedFuture(0.0);
+        }
+        
+        ScrapeStrategy current = SCRAPE_STRATEGIES.get(strategy);
+        return rateLimiter.acquire(requester)
+            .thenApplyAsync(permit -> {
+                // The circuit may have opened while this request waited for its permit
+                if (!circuitBreaker.allowRequest()) return 0.0;
+                long started = System.nanoTime();
+                try (RequestTrace.Scope scope = trace.activate();
+                     RequestTrace.Span span = trace.span("scrape").tag("strategy", current.tag())) {
+                    try {
+                        double price = current.scraper().scrape(this, stickerName);
+                        circuitBreaker.recordSuccess();
+                        recordScrape(current.tag(), price > 0 ? "found" : "empty", started, span);
+                        return price;
+                    } catch (Exception e) {
+                        recordScrape(current.tag(), "error", started, span);
+                        if (isOutage(e)) {
+                            circuitBreaker.recordFailure();
+                        } else {
+                            circuitBreaker.recordSuccess();
+                        }
+                        log.debug("⚠️ {} failed for {}: {}", current.label(), stickerName, e.getMessage());
+                        return 0.0;
+                    }
+                }
+            }, fetchExecutor)
+            .thenCompose(price -> {
+                if (price > 0) {
+                    log.debug("💰 Real market price ({}) for {}: ${}", current.label(), stickerName, price);
+                    return CompletableFuture.completedFuture(price);
+                }
+                return scrapeInOrder(stickerName, requester, strategy + 1, trace);
+            });
+    }
+    
+    /**
+     * Enhanced listings page scraper with better anti-bot protection bypass
+     */
+    private double scrapeListingsPageEnhanced(String stickerName) throws IOException {
+        String encodedName = URLEncoder.encode(stickerName, StandardCharsets.UTF_8);
+        String url = STEAM_MARKET_LISTINGS_URL + encodedName;
+        
+        log.debug("🔍 Enhanced scraping listings page: {}", url);
+        
+        Document doc = fetchPage(Jsoup.connect(url)
+                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36")
+                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,image/apng,*/*;q=0.8")
+                .header("Accept-Language", "en-US,en;q=0.9")
+                .header("Accept-Encoding", "gzip, deflate, br")
+                .header("DNT", "1")
+                // REMOVED: .header("Connection", "keep-alive") - This is restricted in Java
+                .header("Upgrade-Insecure-Requests", "1")
+                .header("Sec-Fetch-Dest", "document")
+                .header("Sec-Fetch-Mode", "navigate")
+                .header("Sec-Fetch-Site", "none")
+                .header("Sec-Fetch-User", "?1")
+                .header("Cache-Control", "max-age=0")
+                .timeout(8000)
+                .followRedirects(true));
+        
+        if (log.isDebugEnabled()) {
+            int textLength = doc.text().length();
+            log.debug("📄 Page title: {}, text length: {}", doc.title(), textLength);
+            if (textLength < 500) {
+                // Very short page content, likely an error page
+                log.debug("⚠️ Very short page content, likely an error page");
+                if (log.isTraceEnabled()) {
+                    log.trace("📝 Full HTML: {}", doc.outerHtml());
+                }
+            }
+        }
+        
+        // Look for the lowest price (first sell order)
+        Elements priceElements = doc.select(".market_listing_price_with_fee");
+        if (!priceElements.isEmpty()) {
+            String priceText = priceElements.first().text().trim();
+            log.debug("💰 Found price element: {}", priceText);
+            return extractPrice(priceText);
+        }
+        
+        // Alternative selector for price
+        Elements altPriceElements = doc.select(".market_listing_price");
+        if (!altPriceElements.isEmpty()) {
+            String priceText = altPriceElements.first().text().trim();
+            log.debug("💰 Found alt price element: {}", priceText);
+            return extractPrice(priceText);
+        }
+        
+        // Try broader selectors if specific ones fail
+        Elements broadElements = doc.select("*:contains($)");
+        if (!broadElements.isEmpty()) {
+            log.debug("💰 Found broad $ elements: {}", broadElements.size());
+            for (Element element : broadElements) {
+                String text = element.ownText().trim();
+                if (text.contains("$") && text.length() < 20) { // Likely a price
+                    log.debug("💰 Potential price: {}", text);
+                    double price = extractPrice(text);
+                    if (price > 0) {
+                        return price;
+                    }
+                }
+            }
+        }
+        
+        log.debug("❌ No price elements found on page");
+        return 0.0;
+    }
+    
+    /**
+     * Simple listings page scraper with minimal name processing
+     */
+    private double scrapeListingsPageSimple(String simpleName) throws IOException {
+        String encodedName = URLEncoder.encode(simpleName, StandardCharsets.UTF_8);
+        String url = STEAM_MARKET_LISTINGS_URL + encodedName;
+        
+        log.debug("🔍 Simple scraping listings page: {}", url);
+        
+        Document doc = fetchPage(Jsoup.connect(url)
+                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:109.0) Gecko/20100101 Firefox/121.0")
+                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                .header("Accept-Language", "en-US,en;q=0.5")
+                .timeout(6000));
+        
+        log.debug("📄 Simple page title: {}", doc.title());
+        
+        // Look for price elements
+        Elements priceElements = doc.select(".market_listing_price_with_fee, .market_listing_price");
+        if (!priceElements.isEmpty()) {
+            String priceText = priceElements.first().text().trim();
+            log.debug("💰 Found simple price: {}", priceText);
+            return extractPrice(priceText);
+        }
+        
+        log.debug("❌ No price found in simple scraping");
+        return 0.0;
+    }
+    
+    /**
+     * Scraper with different user agent to avoid detection
+     */
+    private double scrapeWithDifferentAgent(String stickerName) throws IOException {
+        String encodedName = URLEncoder.encode(stickerName, StandardCharsets.UTF_8);
+        String url = STEAM_MARKET_LISTINGS_URL + encodedName;
+        
+        log.debug("🔍 Different agent scraping: {}", url);
+        
+        Document doc = fetchPage(Jsoup.connect(url)
+                .userAgent("Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.1 Safari/605.1.15")
+                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                .header("Accept-Language", "en-us")
+                .timeout(5000));
+        
+        log.debug("📄 Different agent page title: {}", doc.title());
+        
+        // Look for price elements
+        Elements priceElements = doc.select(".market_listing_price_with_fee, .market_listing_price");
+        if (!priceElements.isEmpty()) {
+            String priceText = priceElements.first().text().trim();
+            log.debug("💰 Found different agent price: {}", priceText);
+            return extractPrice(priceText);
+        }
+        
+        log.debug("❌ No price found with different agent");
+        return 0.0;
+    }
+    
+    /**
+     * Scrapes one Steam Market search page and returns the price of every result row on it,
+     * keyed by the lowercased item name
+     */
+    private Map<String, Double> scrapeSearchPage(String query) throws IOException {
+        String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
+        String url = STEAM_MARKET_SEARCH_URL + encodedQuery;
+        
+        log.debug("🔍 Scraping search page: {}", url);
+        
+        Document doc = fetchPage(Jsoup.connect(url)
+                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
+                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8")
+                .header("Accept-Language", "en-US,en;q=0.5")
+                .timeout(10000));
+        
+        Map<String, Double> prices = parseSearchPage(doc);
+        log.debug("✅ Search page for '{}' listed {} priced items", query, prices.size());
+        return prices;
+    }
+    
+    /**
+     * Downloads the page, then parses it under its own trace span so network time and parse
+     * time show up separately
+     */
+    private static Document fetchPage(Connection connection) throws IOException {
+        Connection.Response response = connection.execute();
+        try (RequestTrace.Span span = RequestTrace.start("parse")) {
+            return response.parse();
+        }
+    }
+    
+    /**
+     * Lowercased item name to price for every priced row of a market search page
+     */
+    static Map<String, Double> parseSearchPage(Document doc) {
+        Map<String, Double> prices = new HashMap<>();
+        Elements searchResults = doc.select(".market_listing_row");
+        for (Element result : searchResults) {
+            String itemName = result.select(".market_listing_item_name").text().trim();
+            Elements priceElements = result.select(".market_listing_price, .normal_price");
+            if (itemName.isEmpty() || priceElements.isEmpty()) continue;
+            
+            double price = extractPrice(priceElements.first().text().trim());
+            if (price > 0) {
+                prices.putIfAbsent(itemName.toLowerCase(), price);
+            }
+        }
+        return prices;
+    }
+    
+    /**
+     * Prices many stickers through the market search page, one rate-limited request per query
+     * instead of one per sticker. Stickers no search row matched are left out of the result.
+     */
+    @Override
+    public CompletableFuture<Map<String, Double>> fetchPrices(Collection<String> stickerNames, String requester) {
+        Map<String, List<String>> groups = groupBySearchQuery(stickerNames);
+        log.debug("📦 Batch pricing {} stickers with {} search pages", stickerNames.size(), groups.size());
+        RequestTrace trace = RequestTrace.current();
+        
+        Map<String, Double> found = new ConcurrentHashMap<>();
+        CompletableFuture<?>[] pages = groups.entrySet().stream()
+            .map(group -> fetchSearchGroup(group.getKey(), group.getValue(), requester, found, trace))
+            .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(pages).thenApply(done -> found);
+    }
+    
+    /**
+     * Groups stickers by player, since one search for a player lists all their variants. A player
+     * with more stickers than fit on one results page is split into player + tournament queries.
+     */
+    static Map<String, List<String>> groupBySearchQuery(Collection<String> stickerNames) {
+        Map<String, List<Sticker>> byPlayer = new LinkedHashMap<>();
+        for (String stickerName : stickerNames) {
+            Sticker sticker = StickerService.parseSticker(stickerName);
+            byPlayer.computeIfAbsent(sticker.getExtractedName().toLowerCase(), k -> new ArrayList<>()).add(sticker);
+        }
+        
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Sticker>> player : byPlayer.entrySet()) {
+            boolean split = player.getValue().size() > SEARCH_PAGE_ROWS;
+            for (Sticker sticker : player.getValue()) {
+                String query = split && !sticker.getTournament().isEmpty()
+                    ? sticker.getExtractedName() + " " + sticker.getTournament()
+                    : sticker.getExtractedName();
+                groups.computeIfAbsent(query.toLowerCase(), k -> new ArrayList<>()).add(sticker.getFullName());
+            }
+        }
+        return groups;
+    }
+    
+    /**
+     * Fetches one search page and collects the price of every sticker of the group it lists
+     */
+    private CompletableFuture<Void> fetchSearchGroup(String query, List<String> stickerNames, String requester,
+                                                     Map<String, Double> found, RequestTrace trace) {
+        if (!circuitBreaker.allowRequest()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        return rateLimiter.acquire(requester)
+            .thenAcceptAsync(permit -> {
+                if (!circuitBreaker.allowRequest()) return;
+                long started = System.nanoTime();
+                try (RequestTrace.Scope scope = trace.activate();
+                     RequestTrace.Span span = trace.span("scrape").tag("strategy", "search-page")) {
+                    Map<String, Double> rows;
+                    try {
+                        rows = scrapeSearchPage(query);
+                    } catch (Exception e) {
+                        recordScrape("search-page", "error", started, span);
+                        throw e;
+                    }
+                    circuitBreaker.recordSuccess();
+                    recordScrape("search-page", rows.isEmpty() ? "empty" : "found", started, span);
+                    searchPagesFetched.increment();
+                    for (String stickerName : stickerNames) {
+                        Double price = rows.get(stickerName.toLowerCase());
+                        if (price != null) {
+                            found.put(stickerName, price);
+                            batchPricesFilled.increment();
+                        }
+                    }
+                } catch (Exception e) {
+                    if (isOutage(e)) {
+                        circuitBreaker.recordFailure();
+                    }
+                    log.debug("⚠️ Search page failed for '{}': {}", query, e.getMessage());
+                }
+            }, fetchExecutor)
+            .exceptionally(e -> {
+                log.debug("⚠️ Search page for '{}' not fetched: {}", query, e.getMessage());
+                return null;
+            });
+    }
+    
+    /**
+     * Latency of one scrape by strategy and outcome (found, empty or error)
+     */
+    private void recordScrape(String strategy, String outcome, long startedNanos, RequestTrace.Span span) {
+        span.tag("outcome", outcome);
+        Timer.builder("steam.scrape")
+            .description("Steam Market page scrapes")
+            .tag("strategy", strategy)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Whether a scraping error means Steam itself is unavailable (timeouts, refused connections,
+     * throttling, server errors) rather than a missing listing for this one sticker
+     */
+    private static boolean isOutage(Exception e) {
+        if (e instanceof HttpStatusException status) {
+            return status.getStatusCode() == 429 || status.getStatusCode() >= 500;
+        }
+        return e instanceof IOException;
+    }
+    
+    /**
+     * Extracts price from Steam Market price text
+     */
+    static double extractPrice(String priceText) {
+        if (priceText == null || priceText.trim().isEmpty()) {
+            return 0.0;
+        }
+        
+        log.debug("🏷️ Extracting price from: '{}'", priceText);
+        
+        // Handle different currency formats
+        // USD: $1.23, EUR: €1,23, GBP: £1.23, etc.
+        
+        // Remove common prefixes/suffixes
+        String cleanText = priceText.replace("Starting at:", "")
+                                   .replace("Buy now for", "")
+                                   .replace("Lowest price:", "")
+                                   .trim();
+        
+        Matcher matcher = PRICE_PATTERN.matcher(cleanText);
+        
+        if (matcher.find()) {
+            String currency = matcher.group(1);
+            String priceStr = matcher.group(2).replace(",", "").replace(" ", "");
+            
+            try {
+                double price = Double.parseDouble(priceStr);
+                
+                // Convert to USD if needed (rough conversion)
+                if (currency.equals("€")) price *= 1.1;
+                else if (currency.equals("£")) price *= 1.25;
+                else if (currency.equals("₹")) price *= 0.012; // INR to USD
+                
+                return Math.round(price * 100.0) / 100.0;
+            } catch (NumberFormatException e) {
+                log.debug("❌ Could not parse price: {}", priceStr);
+            }
+        }
+        
+        // Fallback pattern for numbers without currency symbols
+        Matcher numberMatcher = NUMBER_PATTERN.matcher(cleanText);
+        
+        if (numberMatcher.find()) {
+            try {
+                double price = Double.parseDouble(numberMatcher.group(1).replace(",", "."));
+                return Math.round(price * 100.0) / 100.0;
+            } catch (NumberFormatException e) {
+                log.debug("❌ Could not parse number: {}", numberMatcher.group(1));
+            }
+        }
+        
+        return 0.0;
+    }
+    
+    
+    /**
+     * A permit is free, nobody is waiting for one and Steam is healthy
+     */
+    @Override
+    public boolean hasSpareCapacity() {
+        return circuitBreaker.getState() == SteamCircuitBreaker.State.CLOSED && rateLimiter.hasSpareCapacity();
+    }
+    
+    /**
+     * Rate limiter, executor and circuit breaker state plus batch counters
+     */
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("searchPagesFetched", searchPagesFetched.sum());
+        stats.put("batchPricesFilled", batchPricesFilled.sum());
+        stats.put("rateLimit", rateLimiter.getStats());
+        stats.put("executor", fetchExecutor.getStats());
+        stats.put("circuitBreaker", circuitBreaker.getStats());
+        return stats;
+    }
+}
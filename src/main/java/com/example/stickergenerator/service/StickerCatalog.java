@@ -0,0 +1,241 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.Sticker;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable, array-backed snapshot of the sticker list. Full names, display names and
+ * lowercased match names live in shared char buffers addressed by int offsets, rarities
+ * and tournaments are dictionary-encoded, and stickers are plain int ids. Sticker objects
+ * are only created when a result is handed back to a caller.
+ */
+public final class StickerCatalog {
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final long version;
+    private final int size;
+
+    // Full and display names of every sticker, addressed by start/length pairs
+    private final char[] text;
+    private final int[] fullStart;
+    private final int[] fullLength;
+    private final int[] displayStart;
+    private final int[] displayLength;
+
+    private final int[] rarityCodes;
+    private final String[] rarities;
+    private final int[] tournamentCodes;
+    private final String[] tournaments;
+
+    // Distinct lowercased names; name i occupies names[nameOffsets[i], nameOffsets[i + 1])
+    private final int[] nameIds;
+    private final char[] names;
+    private final int[] nameOffsets;
+    private final int maxNameLength;
+
+    // Stickers of name i are variantIds[variantOffsets[i], variantOffsets[i + 1]), catalog order
+    private final int[] variantOffsets;
+    private final int[] variantIds;
+
+    private final StickerMatchIndex matchIndex;
+    private final FuzzyNameIndex fuzzyIndex;
+
+    private StickerCatalog(Builder builder) {
+        this.version = VERSIONS.incrementAndGet();
+        this.size = builder.size;
+        this.text = Arrays.copyOf(builder.text, builder.textLength);
+        this.fullStart = Arrays.copyOf(builder.fullStart, size);
+        this.fullLength = Arrays.copyOf(builder.fullLength, size);
+        this.displayStart = Arrays.copyOf(builder.displayStart, size);
+        this.displayLength = Arrays.copyOf(builder.displayLength, size);
+        this.rarityCodes = Arrays.copyOf(builder.rarityCodes, size);
+        this.rarities = builder.rarities.keySet().toArray(new String[0]);
+        this.tournamentCodes = Arrays.copyOf(builder.tournamentCodes, size);
+        this.tournaments = builder.tournaments.keySet().toArray(new String[0]);
+        this.nameIds = Arrays.copyOf(builder.nameIds, size);
+
+        int nameCount = builder.names.size();
+        this.nameOffsets = new int[nameCount + 1];
+        StringBuilder nameText = new StringBuilder();
+        int nameId = 0;
+        for (String name : builder.names.keySet()) {
+            nameOffsets[nameId++] = nameText.length();
+            nameText.append(name);
+        }
+        nameOffsets[nameCount] = nameText.length();
+        this.names = nameText.toString().toCharArray();
+        int longest = 0;
+        for (int id = 0; id < nameCount; id++) {
+            longest = Math.max(longest, nameOffsets[id + 1] - nameOffsets[id]);
+        }
+        this.maxNameLength = longest;
+
+        this.variantOffsets = new int[nameCount + 1];
+        for (int id = 0; id < size; id++) {
+            variantOffsets[nameIds[id] + 1]++;
+        }
+        for (int i = 0; i < nameCount; i++) {
+            variantOffsets[i + 1] += variantOffsets[i];
+        }
+        this.variantIds = new int[size];
+        int[] fill = Arrays.copyOf(variantOffsets, nameCount);
+        for (int id = 0; id < size; id++) {
+            variantIds[fill[nameIds[id]]++] = id;
+        }
+
+        this.matchIndex = new StickerMatchIndex(this);
+        this.fuzzyIndex = new FuzzyNameIndex(this);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Increases with every catalog built, so derived caches can tell snapshots apart
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public StickerMatchIndex getMatchIndex() {
+        return matchIndex;
+    }
+
+    public FuzzyNameIndex getFuzzyIndex() {
+        return fuzzyIndex;
+    }
+
+    /**
+     * Creates the Sticker for a result; the catalog itself never holds Sticker objects
+     */
+    public Sticker materialize(int stickerId) {
+        return new Sticker(getFullName(stickerId), getDisplayName(stickerId),
+            rarities[rarityCodes[stickerId]], tournaments[tournamentCodes[stickerId]]);
+    }
+
+    public String getFullName(int stickerId) {
+        return new String(text, fullStart[stickerId], fullLength[stickerId]);
+    }
+
+    public String getDisplayName(int stickerId) {
+        return new String(text, displayStart[stickerId], displayLength[stickerId]);
+    }
+
+    public int getNameId(int stickerId) {
+        return nameIds[stickerId];
+    }
+
+    public int getNameCount() {
+        return nameOffsets.length - 1;
+    }
+
+    /**
+     * Shared buffer of lowercased names, see getNameStart/getNameLength
+     */
+    char[] getNameBuffer() {
+        return names;
+    }
+
+    int getNameStart(int nameId) {
+        return nameOffsets[nameId];
+    }
+
+    public int getNameLength(int nameId) {
+        return nameOffsets[nameId + 1] - nameOffsets[nameId];
+    }
+
+    /**
+     * Length of the longest distinct name, so no sticker covers more of a target than this
+     */
+    public int getMaxNameLength() {
+        return maxNameLength;
+    }
+
+    public String getName(int nameId) {
+        return new String(names, nameOffsets[nameId], getNameLength(nameId));
+    }
+
+    public int getVariantCount(int nameId) {
+        return variantOffsets[nameId + 1] - variantOffsets[nameId];
+    }
+
+    /**
+     * The i-th sticker carrying this name, in catalog order (base sticker first)
+     */
+    public int getVariant(int nameId, int i) {
+        return variantIds[variantOffsets[nameId] + i];
+    }
+
+    public static final class Builder {
+        private int size;
+        private char[] text = new char[1024];
+        private int textLength;
+        private int[] fullStart = new int[64];
+        private int[] fullLength = new int[64];
+        private int[] displayStart = new int[64];
+        private int[] displayLength = new int[64];
+        private int[] rarityCodes = new int[64];
+        private int[] tournamentCodes = new int[64];
+        private int[] nameIds = new int[64];
+        private final Map<String, Integer> rarities = new LinkedHashMap<>();
+        private final Map<String, Integer> tournaments = new LinkedHashMap<>();
+        private final Map<String, Integer> names = new LinkedHashMap<>();
+
+        private Builder() {}
+
+        public Builder add(Sticker sticker) {
+            return add(sticker.getFullName(), sticker.getExtractedName(), sticker.getRarity(), sticker.getTournament());
+        }
+
+        public Builder add(String fullName, String extractedName, String rarity, String tournament) {
+            if (size == fullStart.length) {
+                int capacity = size * 2;
+                fullStart = Arrays.copyOf(fullStart, capacity);
+                fullLength = Arrays.copyOf(fullLength, capacity);
+                displayStart = Arrays.copyOf(displayStart, capacity);
+                displayLength = Arrays.copyOf(displayLength, capacity);
+                rarityCodes = Arrays.copyOf(rarityCodes, capacity);
+                tournamentCodes = Arrays.copyOf(tournamentCodes, capacity);
+                nameIds = Arrays.copyOf(nameIds, capacity);
+            }
+
+            fullStart[size] = append(fullName);
+            fullLength[size] = fullName.length();
+
+            // The display name is usually a slice of the full name, so share those chars
+            int within = fullName.indexOf(extractedName);
+            displayStart[size] = within >= 0 ? fullStart[size] + within : append(extractedName);
+            displayLength[size] = extractedName.length();
+
+            rarityCodes[size] = encode(rarities, rarity == null ? "" : rarity);
+            tournamentCodes[size] = encode(tournaments, tournament == null ? "" : tournament);
+            nameIds[size] = encode(names, extractedName.toLowerCase());
+            size++;
+            return this;
+        }
+
+        private int append(String value) {
+            if (textLength + value.length() > text.length) {
+                text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + value.length()));
+            }
+            value.getChars(0, value.length(), text, textLength);
+            textLength += value.length();
+            return textLength - value.length();
+        }
+
+        private static int encode(Map<String, Integer> dictionary, String value) {
+            return dictionary.computeIfAbsent(value, k -> dictionary.size());
+        }
+
+        public StickerCatalog build() {
+            return new StickerCatalog(this);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.Sticker;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Lookup index over the distinct lowercased names of a StickerCatalog, built once per catalog.
+ * Rarity variants of a player (Gold, Holo, Champion, ...) share one name id, and every full
+ * name, proper prefix and proper suffix maps to the name ids that own it, so a target only
+ * touches names that can match. Keys are 64-bit fingerprints checked against the catalog's
+ * name buffer, so lookups take a char range and never allocate.
+ */
+public class StickerMatchIndex {
+    private static final int[] NONE = new int[0];
+
+    private final StickerCatalog catalog;
+    private final NameTable byName;
+    private final NameTable byProperPrefix;
+    private final NameTable byProperSuffix;
+
+    StickerMatchIndex(StickerCatalog catalog) {
+        this.catalog = catalog;
+
+        int nameCount = catalog.getNameCount();
+        int rangeCount = 0;
+        for (int nameId = 0; nameId < nameCount; nameId++) {
+            rangeCount += Math.max(0, catalog.getNameLength(nameId) - 1);
+        }
+
+        int[][] singles = new int[nameCount][];
+        for (int nameId = 0; nameId < nameCount; nameId++) {
+            singles[nameId] = new int[]{nameId};
+        }
+
+        this.byName = new NameTable(catalog, singles, nameCount);
+        this.byProperPrefix = new NameTable(catalog, singles, rangeCount);
+        this.byProperSuffix = new NameTable(catalog, singles, rangeCount);
+        // The three tables are independent, so large catalogs fill them on separate cores
+        Stream.<Runnable>of(
+            () -> fill(byName, nameCount, false, false),
+            () -> fill(byProperPrefix, nameCount, true, false),
+            () -> fill(byProperSuffix, nameCount, false, true)
+        ).parallel().forEach(Runnable::run);
+    }
+
+    private void fill(NameTable table, int nameCount, boolean prefixes, boolean suffixes) {
+        for (int nameId = 0; nameId < nameCount; nameId++) {
+            int length = catalog.getNameLength(nameId);
+            if (!prefixes && !suffixes) {
+                table.add(nameId, 0, length);
+            }
+            for (int cut = 1; cut < length; cut++) {
+                if (prefixes) table.add(nameId, 0, cut);
+                if (suffixes) table.add(nameId, cut, length);
+            }
+        }
+        table.freeze();
+    }
+
+    public Sticker getSticker(int stickerId) {
+        return catalog.materialize(stickerId);
+    }
+
+    public int getNameCount() {
+        return catalog.getNameCount();
+    }
+
+    public int getVariantCount(int nameId) {
+        return catalog.getVariantCount(nameId);
+    }
+
+    public int getMaxNameLength() {
+        return catalog.getMaxNameLength();
+    }
+
+    public int getVariant(int nameId, int i) {
+        return catalog.getVariant(nameId, i);
+    }
+
+    /**
+     * Name ids whose whole name equals text[from, to)
+     */
+    public int[] withName(char[] text, int from, int to) {
+        return byName.find(text, from, to);
+    }
+
+    /**
+     * Name ids that start with text[from, to) and are longer than it
+     */
+    public int[] withProperPrefix(char[] text, int from, int to) {
+        return byProperPrefix.find(text, from, to);
+    }
+
+    /**
+     * Name ids that end with text[from, to) and are longer than it
+     */
+    public int[] withProperSuffix(char[] text, int from, int to) {
+        return byProperSuffix.find(text, from, to);
+    }
+
+    /**
+     * Finds every 2-sticker spelling of the (lowercased) target using the concat, overlap and
+     * reverse-overlap rules. Each match is {firstNameId, secondNameId}, ordered by first name,
+     * second name, method and cut position. A name may pair with itself; callers skip it when
+     * the name has a single variant.
+     */
+    public List<int[]> findPairs(char[] target) {
+        List<long[]> hits = new ArrayList<>();
+        int length = target.length;
+
+        for (int cut = 0; cut <= length; cut++) {
+            int[] seconds = withName(target, cut, length);
+            if (seconds.length == 0) continue;
+
+            // Method 1: first sticker used whole (concat)
+            for (int first : withName(target, 0, cut)) {
+                for (int second : seconds) {
+                    hits.add(new long[]{first, second, 0, cut});
+                }
+            }
+
+            // Method 2: first sticker cut after 'cut' characters (overlap)
+            for (int first : withProperPrefix(target, 0, cut)) {
+                for (int second : seconds) {
+                    hits.add(new long[]{first, second, 1, cut});
+                }
+            }
+        }
+
+        // Method 3: second sticker cut at the front (reverse overlap)
+        for (int split = 0; split < length; split++) {
+            int[] firsts = withName(target, 0, split);
+            if (firsts.length == 0) continue;
+
+            int tailLength = length - split;
+            for (int first : firsts) {
+                for (int second : withProperSuffix(target, split, length)) {
+                    hits.add(new long[]{first, second, 2, catalog.getNameLength(second) - tailLength});
+                }
+            }
+        }
+
+        hits.sort(Comparator.<long[]>comparingLong(h -> h[0])
+            .thenComparingLong(h -> h[1])
+            .thenComparingLong(h -> h[2])
+            .thenComparingLong(h -> h[3]));
+
+        List<int[]> pairs = new ArrayList<>(hits.size());
+        for (long[] hit : hits) {
+            pairs.add(new int[]{(int) hit[0], (int) hit[1]});
+        }
+        return pairs;
+    }
+
+    /**
+     * Open-addressing table from a name slice to the name ids sharing it. Each key is stored
+     * as its fingerprint plus one (nameId, start, length) slice of the name buffer to verify
+     * against, so fingerprint collisions never produce false matches. Ids are collected in
+     * linked int arrays while building; keys owned by a single name share that name's
+     * one-element array, so most keys cost no allocation of their own.
+     */
+    private static final class NameTable {
+        private final StickerCatalog catalog;
+        private final int[][] singles;
+        private final long[] fingerprints;
+        private final int[] keyName;
+        private final int[] keySlice;
+        private final int[][] values;
+        private final int mask;
+
+        // Build-time chains: head[slot] -> entry, entryNext[entry] -> entry, -1 terminated
+        private int[] head;
+        private int[] entryName;
+        private int[] entryNext;
+        private int entries;
+
+        private NameTable(StickerCatalog catalog, int[][] singles, int expectedEntries) {
+            this.catalog = catalog;
+            this.singles = singles;
+            int capacity = Integer.highestOneBit(Math.max(4, expectedEntries + expectedEntries / 2) - 1) << 1;
+            this.fingerprints = new long[capacity];
+            this.keyName = new int[capacity];
+            this.keySlice = new int[capacity];
+            this.values = new int[capacity][];
+            this.mask = capacity - 1;
+            this.head = new int[capacity];
+            this.entryName = new int[Math.max(1, expectedEntries)];
+            this.entryNext = new int[Math.max(1, expectedEntries)];
+            Arrays.fill(keyName, -1);
+        }
+
+        private void add(int nameId, int from, int to) {
+            char[] buffer = catalog.getNameBuffer();
+            int start = catalog.getNameStart(nameId);
+            long fingerprint = fingerprint(buffer, start + from, start + to);
+            int slot = slotOf(fingerprint, buffer, start + from, start + to);
+            if (keyName[slot] < 0) {
+                fingerprints[slot] = fingerprint;
+                keyName[slot] = nameId;
+                keySlice[slot] = from << 16 | (to - from);
+                head[slot] = -1;
+            }
+            if (entries == entryName.length) {
+                entryName = Arrays.copyOf(entryName, entries * 2);
+                entryNext = Arrays.copyOf(entryNext, entries * 2);
+            }
+            // Names are added in id order, so prepending keeps each chain in descending order
+            entryName[entries] = nameId;
+            entryNext[entries] = head[slot];
+            head[slot] = entries++;
+        }
+
+        private void freeze() {
+            for (int slot = 0; slot < values.length; slot++) {
+                if (keyName[slot] < 0) continue;
+                int count = 0;
+                for (int entry = head[slot]; entry >= 0; entry = entryNext[entry]) {
+                    count++;
+                }
+                if (count == 1) {
+                    values[slot] = singles[entryName[head[slot]]];
+                    continue;
+                }
+                int[] ids = new int[count];
+                for (int entry = head[slot]; entry >= 0; entry = entryNext[entry]) {
+                    ids[--count] = entryName[entry];
+                }
+                values[slot] = ids;
+            }
+            head = null;
+            entryName = null;
+            entryNext = null;
+        }
+
+        private int[] find(char[] text, int from, int to) {
+            int slot = slotOf(fingerprint(text, from, to), text, from, to);
+            return keyName[slot] < 0 ? NONE : values[slot];
+        }
+
+        /**
+         * Slot holding text[from, to), or the empty slot where it would go
+         */
+        private int slotOf(long fingerprint, char[] text, int from, int to) {
+            long mixed = (fingerprint ^ (fingerprint >>> 33)) * 0xff51afd7ed558ccdL;
+            int slot = (int) (mixed ^ (mixed >>> 33)) & mask;
+            while (keyName[slot] >= 0) {
+                if (fingerprints[slot] == fingerprint && sameChars(slot, text, from, to)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private boolean sameChars(int slot, char[] text, int from, int to) {
+            int length = keySlice[slot] & 0xFFFF;
+            if (length != to - from) return false;
+            char[] buffer = catalog.getNameBuffer();
+            int offset = catalog.getNameStart(keyName[slot]) + (keySlice[slot] >>> 16);
+            for (int i = 0; i < length; i++) {
+                if (buffer[offset + i] != text[from + i]) return false;
+            }
+            return true;
+        }
+
+        private static long fingerprint(char[] text, int from, int to) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = from; i < to; i++) {
+                hash = (hash ^ text[i]) * 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
@@ -1,105 +1,287 @@
 package com.example.stickergenerator.service;
 
 import com.example.stickergenerator.model.Sticker;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 @Service
 public class StickerService {
+    private static final Logger log = LoggerFactory.getLogger(StickerService.class);
+    
+    private static final Pattern STICKER_PATTERN =
+        Pattern.compile("Sticker\\s*\\|\\s*([^|()]+?)\\s*(?:\\([^)]*\\))?\\s*\\|\\s*(.+)");
+    private static final Pattern SIMPLE_PATTERN = Pattern.compile("Sticker\\s*\\|\\s*([^|]+)");
+    private static final Pattern PARENTHESES_PATTERN = Pattern.compile("\\s*\\([^)]*\\)\\s*");
+    private static final Pattern RARITY_PATTERN = Pattern.compile("\\((Gold|Holo|Glitter)\\)");
+    private static final String STANDARD_PREFIX = "Sticker | ";
+    
     private final ObjectMapper objectMapper;
-    private List<Sticker> stickers;
     
-    public StickerService(ObjectMapper objectMapper) {
+    // External stickers.json to load and watch; empty means the bundled classpath copy
+    private final String stickersFile;
+    private final boolean watchEnabled;
+    
+    // Copy-on-write snapshot: readers take one reference per request and never lock
+    private volatile StickerCatalog catalog;
+    private volatile Thread watcher;
+    
+    public StickerService(ObjectMapper objectMapper,
+                          @Value("${stickers.file:}") String stickersFile,
+                          @Value("${stickers.watch:true}") boolean watchEnabled) {
         this.objectMapper = objectMapper;
-        loadStickers();
+        this.stickersFile = stickersFile;
+        this.watchEnabled = watchEnabled;
+        this.catalog = loadStickers();
+    }
+    
+    @PostConstruct
+    public void startWatching() {
+        if (stickersFile.isBlank() || !watchEnabled) return;
+        
+        Thread thread = new Thread(this::watchStickersFile, "sticker-catalog-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        this.watcher = thread;
+    }
+    
+    @PreDestroy
+    public void stopWatching() {
+        Thread thread = watcher;
+        if (thread != null) {
+            thread.interrupt();
+        }
     }
     
-    private void loadStickers() {
+    /**
+     * Re-reads the sticker list and swaps the new catalog in. On failure the current catalog stays.
+     */
+    public boolean reload() {
         try {
-            ClassPathResource resource = new ClassPathResource("data/stickers.json");
-            if (!resource.exists()) {
-                throw new RuntimeException("stickers.json file not found in src/main/resources/data/");
+            StickerCatalog reloaded = loadStickers();
+            this.catalog = reloaded;
+            log.info("🔄 Sticker catalog swapped to version {}", reloaded.getVersion());
+            return true;
+        } catch (RuntimeException e) {
+            log.error("❌ Sticker reload failed, keeping version {}: {}", catalog.getVersion(), e.getMessage());
+            return false;
+        }
+    }
+    
+    private void watchStickersFile() {
+        Path file = Paths.get(stickersFile).toAbsolutePath();
+        try (WatchService watchService = file.getFileSystem().newWatchService()) {
+            file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            log.info("👀 Watching {} for sticker changes", file);
+            
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= file.getFileName().equals(event.context());
+                }
+                key.reset();
+                
+                if (changed) {
+                    // Let the writer finish and fold the burst of events into one reload
+                    Thread.sleep(200);
+                    WatchKey burst;
+                    while ((burst = watchService.poll()) != null) {
+                        burst.pollEvents();
+                        burst.reset();
+                    }
+                    reload();
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | ClosedWatchServiceException e) {
+            log.warn("❌ Stopped watching {}: {}", file, e.getMessage());
+        }
+    }
+    
+    /**
+     * Streams the JSON array entry by entry, parses entries in parallel and builds the catalog
+     * in file order. Load time grows linearly with the number of stickers.
+     */
+    private StickerCatalog loadStickers() {
+        long started = System.nanoTime();
+        try (InputStream input = openStickersFile();
+             JsonParser parser = objectMapper.getFactory().createParser(input)) {
             
-            List<String> stickerNames = objectMapper.readValue(
-                resource.getInputStream(), 
-                new TypeReference<List<String>>() {}
-            );
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RuntimeException("stickers.json must contain a JSON array of sticker names");
+            }
             
-            System.out.println("Loaded " + stickerNames.size() + " stickers from JSON file");
-            for (String name : stickerNames) {
-                System.out.println("Raw sticker name: '" + name + "'");
+            List<String> stickerNames = new ArrayList<>();
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) {
+                    throw new RuntimeException("stickers.json ended before the array was closed");
+                }
+                String name = token.isScalarValue() ? parser.getValueAsString() : null;
+                if (name == null) {
+                    parser.skipChildren();
+                    continue;
+                }
+                name = name.trim(); // Trim whitespace
+                if (!name.isEmpty()) { // Filter empty names
+                    stickerNames.add(name);
+                }
             }
+            long read = System.nanoTime();
             
-            this.stickers = stickerNames.stream()
-                .map(String::trim) // Trim whitespace
-                .filter(name -> !name.isEmpty()) // Filter empty names
-                .map(this::parseSticker)
-                .toList();
-                
-            System.out.println("Parsed " + this.stickers.size() + " stickers");
-            for (Sticker sticker : this.stickers) {
-                System.out.println("Parsed sticker - Full: '" + sticker.getFullName() + "', Extracted: '" + sticker.getExtractedName() + "'");
+            Sticker[] parsed = new Sticker[stickerNames.size()];
+            IntStream.range(0, parsed.length)
+                .parallel()
+                .forEach(i -> parsed[i] = parseSticker(stickerNames.get(i)));
+            
+            StickerCatalog.Builder builder = StickerCatalog.builder();
+            for (Sticker sticker : parsed) {
+                builder.add(sticker);
             }
+            StickerCatalog loaded = builder.build();
+            long finished = System.nanoTime();
+            
+            double seconds = (finished - started) / 1e9;
+            log.info("Loaded {} stickers ({} distinct names) in {} ms: read {} ms, parse+index {} ms, {} stickers/s",
+                loaded.size(), loaded.getNameCount(), Math.round(seconds * 1000), Math.round((read - started) / 1e6),
+                Math.round((finished - read) / 1e6), Math.round(loaded.size() / Math.max(seconds, 1e-9)));
+            return loaded;
             
         } catch (IOException e) {
             throw new RuntimeException("Failed to load stickers from JSON file: " + e.getMessage(), e);
         }
     }
     
-    private Sticker parseSticker(String fullName) {
-        // Pattern: "Sticker | PlayerName (Rarity) | Tournament"
-        Pattern pattern = Pattern.compile("Sticker\\s*\\|\\s*([^|()]+?)\\s*(?:\\([^)]*\\))?\\s*\\|\\s*(.+)");
-        Matcher matcher = pattern.matcher(fullName);
+    private InputStream openStickersFile() throws IOException {
+        if (!stickersFile.isBlank()) {
+            return Files.newInputStream(Paths.get(stickersFile));
+        }
+        
+        ClassPathResource resource = new ClassPathResource("data/stickers.json");
+        if (!resource.exists()) {
+            throw new RuntimeException("stickers.json file not found in src/main/resources/data/");
+        }
+        return resource.getInputStream();
+    }
+    
+    /**
+     * Parses "Sticker | PlayerName (Rarity) | Tournament". Thread-safe: the patterns are compiled once,
+     * and the common layout is read by hand without running them at all.
+     */
+    static Sticker parseSticker(String fullName) {
+        Sticker sticker = parseStandardLayout(fullName);
+        if (sticker != null) {
+            return sticker;
+        }
+        
+        Matcher matcher = STICKER_PATTERN.matcher(fullName);
         
         if (matcher.find()) {
             String extractedName = matcher.group(1).trim();
             String tournament = matcher.group(2).trim();
             String rarity = extractRarity(fullName);
             
-            Sticker sticker = new Sticker(fullName, extractedName, rarity, tournament);
-            System.out.println("Successfully parsed sticker: '" + extractedName + "' from '" + fullName + "'");
-            return sticker;
+            return new Sticker(fullName, extractedName, rarity, tournament);
         }
         
         // If pattern doesn't match, try a simpler pattern to extract just the name
-        Pattern simplePattern = Pattern.compile("Sticker\\s*\\|\\s*([^|]+)");
-        Matcher simpleMatcher = simplePattern.matcher(fullName);
+        Matcher simpleMatcher = SIMPLE_PATTERN.matcher(fullName);
         if (simpleMatcher.find()) {
             String extractedName = simpleMatcher.group(1).trim();
             // Remove any parenthetical content like (Gold)
-            extractedName = extractedName.replaceAll("\\s*\\([^)]*\\)\\s*", "").trim();
+            extractedName = PARENTHESES_PATTERN.matcher(extractedName).replaceAll("").trim();
             
-            Sticker sticker = new Sticker(fullName, extractedName, "", "");
-            System.out.println("Simple pattern match for sticker: '" + extractedName + "' from '" + fullName + "'");
-            return sticker;
+            return new Sticker(fullName, extractedName, "", "");
         }
         
         // If no pattern matches, use the full name as extracted name
-        System.out.println("No pattern matched for: '" + fullName + "', using as-is");
+        log.debug("No pattern matched for: '{}', using as-is", fullName);
         return new Sticker(fullName, fullName, "", "");
     }
     
-    private String extractRarity(String fullName) {
-        Pattern rarityPattern = Pattern.compile("\\((Gold|Holo|Glitter)\\)");
-        Matcher matcher = rarityPattern.matcher(fullName);
+    /**
+     * Reads "Sticker | Name | Tournament" or "Sticker | Name (Rarity) | Tournament" without regex,
+     * giving the same result as STICKER_PATTERN. Returns null for anything else.
+     */
+    private static Sticker parseStandardLayout(String fullName) {
+        if (!fullName.startsWith(STANDARD_PREFIX)) return null;
+        
+        int nameStart = STANDARD_PREFIX.length();
+        int bar = fullName.indexOf('|', nameStart);
+        if (bar < 0) return null;
+        
+        int nameEnd = bar;
+        int open = fullName.indexOf('(', nameStart);
+        if (open >= 0 && open < bar) {
+            // Exactly one parenthesised part, followed only by whitespace up to the bar
+            int close = fullName.indexOf(')', open);
+            if (close < 0 || close > bar || !fullName.substring(close + 1, bar).isBlank()) return null;
+            nameEnd = open;
+        }
+        
+        String namePart = fullName.substring(nameStart, nameEnd);
+        String tournamentPart = fullName.substring(bar + 1);
+        if (namePart.isBlank() || namePart.indexOf(')') >= 0 || tournamentPart.isBlank()
+                || tournamentPart.indexOf('\n') >= 0 || tournamentPart.indexOf('\r') >= 0) {
+            return null;
+        }
+        
+        return new Sticker(fullName, namePart.trim(), extractRarity(fullName), tournamentPart.trim());
+    }
+    
+    private static String extractRarity(String fullName) {
+        if (fullName.indexOf('(') < 0) return "";
+        Matcher matcher = RARITY_PATTERN.matcher(fullName);
         return matcher.find() ? matcher.group(1) : "";
     }
     
+    /**
+     * Current catalog snapshot; hold on to it for the whole request to see one consistent list
+     */
+    public StickerCatalog getCatalog() {
+        return catalog;
+    }
+    
+    /**
+     * Materializes every sticker in the catalog; meant for debugging, not the request path
+     */
     public List<Sticker> getAllStickers() {
+        StickerCatalog catalog = this.catalog;
+        List<Sticker> stickers = new ArrayList<>(catalog.size());
+        for (int id = 0; id < catalog.size(); id++) {
+            stickers.add(catalog.materialize(id));
+        }
         return stickers;
     }
     
     public List<Sticker> findStickersByLetter(char letter) {
-        return stickers.stream()
-            .filter(sticker -> sticker.getExtractedName().toLowerCase().startsWith(String.valueOf(letter).toLowerCase()))
-            .toList();
+        StickerCatalog catalog = this.catalog;
+        char first = Character.toLowerCase(letter);
+        List<Sticker> matches = new ArrayList<>();
+        for (int nameId = 0; nameId < catalog.getNameCount(); nameId++) {
+            if (catalog.getNameLength(nameId) == 0 || catalog.getNameBuffer()[catalog.getNameStart(nameId)] != first) continue;
+            for (int i = 0; i < catalog.getVariantCount(nameId); i++) {
+                matches.add(catalog.materialize(catalog.getVariant(nameId, i)));
+            }
+        }
+        return matches;
     }
 }
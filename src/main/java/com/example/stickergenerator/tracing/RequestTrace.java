@@ -0,0 +1,134 @@
+package com.example.stickergenerator.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phase-level timing for one request. Only sampled traces record anything: for the rest every
+ * span is a shared no-op, so instrumented code costs a thread-local read and a branch. A trace
+ * follows its request onto other threads through activate(), which also puts its id (and the
+ * debug flag, when full detail was asked for) into the logging MDC.
+ */
+public final class RequestTrace {
+    private static final Logger log = LoggerFactory.getLogger(RequestTrace.class);
+    
+    // Logging MDC keys, see logback-spring.xml
+    public static final String TRACE_ID_KEY = "traceId";
+    public static final String DEBUG_KEY = "debug";
+    
+    public static final RequestTrace NONE = new RequestTrace(null, false, false);
+    
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    
+    private final String id;
+    private final boolean sampled;
+    private final boolean debug;
+    
+    public RequestTrace(String id, boolean sampled, boolean debug) {
+        this.id = id;
+        this.sampled = sampled || debug;
+        this.debug = debug;
+    }
+    
+    /**
+     * The trace active on this thread, or NONE
+     */
+    public static RequestTrace current() {
+        RequestTrace trace = CURRENT.get();
+        return trace != null ? trace : NONE;
+    }
+    
+    /**
+     * Shorthand for current().span(phase)
+     */
+    public static Span start(String phase) {
+        return current().span(phase);
+    }
+    
+    public Span span(String phase) {
+        return sampled ? new Span(this, phase) : Span.NOOP;
+    }
+    
+    /**
+     * Makes this the current trace of the calling thread until the scope is closed
+     */
+    public Scope activate() {
+        if (this == NONE && CURRENT.get() == null) {
+            return Scope.NOOP;
+        }
+        RequestTrace previous = CURRENT.get();
+        CURRENT.set(this);
+        putMdc(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+            putMdc(previous != null ? previous : NONE);
+        };
+    }
+    
+    private static void putMdc(RequestTrace trace) {
+        if (trace.id != null) {
+            MDC.put(TRACE_ID_KEY, trace.id);
+        } else {
+            MDC.remove(TRACE_ID_KEY);
+        }
+        if (trace.debug) {
+            MDC.put(DEBUG_KEY, "true");
+        } else {
+            MDC.remove(DEBUG_KEY);
+        }
+    }
+    
+    public String getId() { return id; }
+    public boolean isSampled() { return sampled; }
+    public boolean isDebug() { return debug; }
+    
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        Scope NOOP = () -> {};
+        
+        @Override
+        void close();
+    }
+    
+    /**
+     * One timed phase; logged with its attributes when closed
+     */
+    public static class Span implements AutoCloseable {
+        static final Span NOOP = new Span(null, null) {
+            @Override public Span tag(String key, Object value) { return this; }
+            @Override public void close() {}
+        };
+        
+        private final RequestTrace trace;
+        private final String phase;
+        private final long startedAt = System.nanoTime();
+        private StringBuilder attributes;
+        
+        private Span(RequestTrace trace, String phase) {
+            this.trace = trace;
+            this.phase = phase;
+        }
+        
+        public Span tag(String key, Object value) {
+            if (attributes == null) {
+                attributes = new StringBuilder();
+            }
+            attributes.append(' ').append(key).append('=').append(value);
+            return this;
+        }
+        
+        @Override
+        public void close() {
+            double millis = (System.nanoTime() - startedAt) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+            log.info("span={} trace={} ms={}{}", phase, trace.id, String.format("%.2f", millis),
+                attributes != null ? attributes : "");
+        }
+    }
+}
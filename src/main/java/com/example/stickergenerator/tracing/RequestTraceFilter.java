@@ -0,0 +1,60 @@
+package com.example.stickergenerator.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Starts a RequestTrace for every API call. A sample of requests (tracing.sample-rate) is
+ * traced; sending the debug header traces that request and logs it at full debug detail.
+ */
+@Component
+public class RequestTraceFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(RequestTraceFilter.class);
+    
+    private final double sampleRate;
+    private final String debugHeader;
+    
+    public RequestTraceFilter(@Value("${tracing.sample-rate:0.01}") double sampleRate,
+                              @Value("${tracing.debug-header:X-Debug-Trace}") String debugHeader) {
+        this.sampleRate = sampleRate;
+        this.debugHeader = debugHeader;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean debug = Boolean.parseBoolean(request.getHeader(debugHeader));
+        boolean sampled = debug || ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (!sampled) {
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        RequestTrace trace = new RequestTrace(UUID.randomUUID().toString().substring(0, 8), true, debug);
+        response.setHeader("X-Trace-Id", trace.getId());
+        long started = System.nanoTime();
+        try (RequestTrace.Scope scope = trace.activate()) {
+            chain.doFilter(request, response);
+        } finally {
+            // Streaming responses are still being written at this point
+            log.info("request trace={} {} {} status={} ms={}", trace.getId(), request.getMethod(),
+                request.getRequestURI(), response.getStatus(), String.format("%.2f", (System.nanoTime() - started) / 1e6));
+        }
+    }
+}
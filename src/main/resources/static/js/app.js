@@ -24,14 +24,14 @@ document.addEventListener('DOMContentLoaded', function() {
         showLoadingState();
 
         try {
-            const response = await fetch('/api/stickers/generate', {
+            const response = await fetch('/api/stickers/generate/stream', {
                 method: 'POST',
                 headers: {
                     'Content-Type': 'application/json',
+                    'Accept': 'application/x-ndjson'
                 },
                 body: JSON.stringify({
-                    name: name,
-                    sortOrder: sortOrder
+                    name: name
                 })
             });
 
@@ -39,14 +39,34 @@ document.addEventListener('DOMContentLoaded', function() {
                 throw new Error(`HTTP error! status: ${response.status}`);
             }
 
-            const combinations = await response.json();
-            console.log('API Response:', combinations);
-            
-            // Add a small delay for better UX
-            setTimeout(() => {
-                displayResults(combinations, name);
-                hideLoadingState();
-            }, 500);
+            // Combinations show up as soon as they are found; prices fill in as they resolve
+            const combinations = [];
+            const prices = {};
+            let renderPending = false;
+            let firstRender = true;
+            const render = () => {
+                if (renderPending) return;
+                renderPending = true;
+                requestAnimationFrame(() => {
+                    renderPending = false;
+                    displayResults(applyPrices(combinations, prices, sortOrder), name, firstRender);
+                    if (firstRender) {
+                        hideLoadingState();
+                        firstRender = false;
+                    }
+                });
+            };
+
+            await readNdjson(response, event => {
+                if (event.type === 'combo') {
+                    combinations.push(event.combo);
+                    render();
+                } else if (event.type === 'price') {
+                    prices[event.price.stickerName] = event.price;
+                    render();
+                }
+            });
+            render();
 
         } catch (error) {
             console.error('Error fetching combinations:', error);
@@ -55,6 +75,43 @@ document.addEventListener('DOMContentLoaded', function() {
         }
     });
 
+    async function readNdjson(response, onEvent) {
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffered = '';
+        for (;;) {
+            const { done, value } = await reader.read();
+            if (done) break;
+            buffered += decoder.decode(value, { stream: true });
+            const lines = buffered.split('\n');
+            buffered = lines.pop();
+            lines.filter(line => line.trim()).forEach(line => onEvent(JSON.parse(line)));
+        }
+        if (buffered.trim()) {
+            onEvent(JSON.parse(buffered));
+        }
+    }
+
+    function applyPrices(combinations, prices, sortOrder) {
+        const priced = combinations.map(combo => {
+            const comboPrices = combo.stickers.map(sticker =>
+                prices[sticker.fullName] || { stickerName: sticker.fullName, price: 0, pending: true });
+            return {
+                ...combo,
+                prices: comboPrices,
+                totalPrice: comboPrices.reduce((sum, price) => sum + (price.price || 0), 0),
+                pricePending: comboPrices.some(price => price.pending)
+            };
+        });
+        // Pending totals only cover part of the price, so those combos go last either way
+        if (sortOrder === 'desc') {
+            priced.sort((a, b) => a.pricePending - b.pricePending || b.totalPrice - a.totalPrice);
+        } else if (sortOrder === 'asc') {
+            priced.sort((a, b) => a.pricePending - b.pricePending || a.totalPrice - b.totalPrice);
+        }
+        return priced;
+    }
+
     function showLoadingState() {
         // Button loading animation
         submitButton.disabled = true;
@@ -80,7 +137,7 @@ document.addEventListener('DOMContentLoaded', function() {
         loadingSpinner.style.display = 'none';
     }
 
-    function displayResults(combinations, name) {
+    function displayResults(combinations, name, scrollIntoView = true) {
         targetNameSpan.textContent = name.toUpperCase();
         
         if (!combinations || combinations.length === 0) {
@@ -140,7 +197,7 @@ document.addEventListener('DOMContentLoaded', function() {
                             <div class="sticker-actions">
                                 <div class="sticker-price-display">
                                     <span class="price-label">Price</span>
-                                    <span class="sticker-price">${price ? `$${priceValue.toFixed(2)}` : 'N/A'}</span>
+                                    <span class="sticker-price">${price?.pending ? 'Pending' : price ? `$${priceValue.toFixed(2)}` : 'N/A'}</span>
                                 </div>
                                 <a href="${steamMarketUrl}" target="_blank" rel="noopener noreferrer" class="steam-market-btn">
                                     <svg class="steam-icon" width="16" height="16" viewBox="0 0 24 24" fill="currentColor">
@@ -166,7 +223,7 @@ document.addEventListener('DOMContentLoaded', function() {
                         <h4 class="combo-title">${comboTypeText}</h4>
                         <div class="combo-price-container">
                             <span class="price-label">Total Cost</span>
-                            <span class="combo-price">$${totalPrice.toFixed(2)}</span>
+                            <span class="combo-price">$${totalPrice.toFixed(2)}${combo.pricePending ? '+' : ''}</span>
                         </div>
                     </div>
                     <div class="stickers-list">
@@ -183,13 +240,20 @@ document.addEventListener('DOMContentLoaded', function() {
         // Add animation delay for each card
         const cards = combinationsContainer.querySelectorAll('.sticker-combo');
         cards.forEach((card, index) => {
-            card.style.animationDelay = `${index * 0.1}s`;
+            if (scrollIntoView) {
+                card.style.animationDelay = `${index * 0.1}s`;
+            } else {
+                // Re-rendered for a price update, don't replay the entrance animation
+                card.style.animation = 'none';
+            }
         });
         
         // Smooth scroll to results
-        setTimeout(() => {
-            resultsSection.scrollIntoView({ behavior: 'smooth', block: 'start' });
-        }, 100);
+        if (scrollIntoView) {
+            setTimeout(() => {
+                resultsSection.scrollIntoView({ behavior: 'smooth', block: 'start' });
+            }, 100);
+        }
     }
 
     function getPriceClass(price) {
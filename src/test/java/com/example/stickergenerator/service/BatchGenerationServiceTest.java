@@ -0,0 +1,38 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.BatchNameResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"price.provider=local", "steam.price-store.path="})
+class BatchGenerationServiceTest {
+
+	@Autowired
+	private BatchGenerationService batchGenerationService;
+
+	@Test
+	void returnsNamesAsSentAndSharesTheirWork() {
+		List<BatchNameResult> results = batchGenerationService
+			.generateBatch(List.of("S1mple", " s1mple ", "S1mple", "ZywOo"), 5, false, "asc", 3, "test")
+			.collectList()
+			.block();
+
+		Map<String, BatchNameResult> byName = results.stream()
+			.collect(Collectors.toMap(BatchNameResult::getName, result -> result));
+		assertEquals(3, results.size());
+		assertEquals(Set.of("S1mple", " s1mple ", "ZywOo"), byName.keySet());
+		for (BatchNameResult result : results) {
+			assertFalse(result.getCombinations().isEmpty(), result.getName());
+		}
+		assertSame(byName.get("S1mple").getCombinations(), byName.get(" s1mple ").getCombinations());
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.Sticker;
+import com.example.stickergenerator.model.StickerCombo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CombinationCacheTest {
+
+	private static final List<StickerCombo> COMBOS =
+		List.of(new StickerCombo("foo", List.of(new Sticker("Sticker | foo | X", "foo", "", "X"))));
+
+	@Test
+	void evictsLeastRecentlyUsed() {
+		CombinationCache cache = new CombinationCache(2, 60_000);
+		cache.put(key(1, "a"), COMBOS);
+		cache.put(key(1, "b"), COMBOS);
+		assertNotNull(cache.get(key(1, "a")));
+		cache.put(key(1, "c"), COMBOS);
+
+		assertNotNull(cache.get(key(1, "a")));
+		assertNull(cache.get(key(1, "b")));
+		assertNotNull(cache.get(key(1, "c")));
+		assertEquals(1L, cache.getStats().get("evictions"));
+	}
+
+	@Test
+	void expiresAfterTtl() throws InterruptedException {
+		CombinationCache cache = new CombinationCache(10, 20);
+		cache.put(key(1, "a"), COMBOS);
+		assertNotNull(cache.get(key(1, "a")));
+		Thread.sleep(50);
+		assertNull(cache.get(key(1, "a")));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	void dropsEntriesOfOlderCatalogs() {
+		CombinationCache cache = new CombinationCache(10, 60_000);
+		cache.put(key(1, "a"), COMBOS);
+		assertNull(cache.get(key(2, "a")));
+		cache.put(key(1, "a"), COMBOS);
+		assertNull(cache.get(key(1, "a")));
+	}
+
+	@Test
+	void returnsCopies() {
+		CombinationCache cache = new CombinationCache(10, 60_000);
+		cache.put(key(1, "a"), COMBOS);
+		cache.get(key(1, "a")).get(0).setTotalPrice(5.0);
+		assertNotSame(COMBOS.get(0), cache.get(key(1, "a")).get(0));
+		assertEquals(0.0, cache.get(key(1, "a")).get(0).getTotalPrice());
+	}
+
+	private static CombinationCache.Key key(long catalogVersion, String name) {
+		return new CombinationCache.Key(catalogVersion, name, 5, false);
+	}
+
+}
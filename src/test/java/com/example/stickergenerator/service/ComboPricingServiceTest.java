@@ -0,0 +1,71 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.Sticker;
+import com.example.stickergenerator.model.StickerCombo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"price.provider=local", "steam.price-store.path="})
+class ComboPricingServiceTest {
+
+	private static final String TARGET = "s1mplezywoo";
+
+	@Autowired
+	private ComboPricingService comboPricingService;
+
+	@Autowired
+	private NameGeneratorService nameGeneratorService;
+
+	@Autowired
+	private SteamMarketService steamMarketService;
+
+	@Test
+	void cheapestCombinationsMatchPricingEverything() {
+		// Half the stickers already priced, as after some browsing
+		Set<String> fullNames = new LinkedHashSet<>();
+		for (StickerCombo combo : generate()) {
+			for (Sticker sticker : combo.getStickers()) {
+				fullNames.add(sticker.getFullName());
+			}
+		}
+		int i = 0;
+		for (String fullName : fullNames) {
+			if (i++ % 2 == 0) steamMarketService.getStickerPrice(fullName).join();
+		}
+
+		long lookupsBefore = lookups();
+		List<StickerCombo> cheapest = comboPricingService.cheapestCombinations(generate(), 5, "test");
+		long lookupsUsed = lookups() - lookupsBefore;
+
+		List<StickerCombo> all = generate();
+		comboPricingService.priceCombinations(all, "test");
+		all.sort(ComboPricingService.BY_PRICE_ASCENDING);
+
+		assertEquals(5, cheapest.size());
+		for (int k = 0; k < 5; k++) {
+			assertEquals(all.get(k).getTotalPrice(), cheapest.get(k).getTotalPrice(), 1e-9);
+		}
+		assertTrue(lookupsUsed < fullNames.size() / 2, "priced " + lookupsUsed + " stickers");
+	}
+
+	@Test
+	void cheapestCombinationsRejectsEmptyLimit() {
+		assertThrows(IllegalArgumentException.class, () -> comboPricingService.cheapestCombinations(generate(), 0, "test"));
+	}
+
+	private List<StickerCombo> generate() {
+		return nameGeneratorService.generateNameCombinations(TARGET, 5, true);
+	}
+
+	private long lookups() {
+		return (long) steamMarketService.getProviderStats().get("lookups");
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.example.stickergenerator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyNameIndexTest {
+
+	private static final long NO_DEADLINE = Long.MAX_VALUE / 4;
+
+	private final StickerService stickerService = new StickerService(new ObjectMapper(), "", false);
+
+	private final StickerCatalog catalog = stickerService.getCatalog();
+
+	@Test
+	void findsSpellingOneEditAway() {
+		FuzzyNameIndex.NearMiss miss = find("simple", 2, "s1mple");
+		assertEquals(1, miss.distance());
+	}
+
+	@Test
+	void findsSpellingTwoEditsAway() {
+		assertEquals(1, find("zyw0o", 2, "zywoo").distance());
+		assertEquals(2, find("zyw00", 2, "zywoo").distance());
+	}
+
+	@Test
+	void resultsRespectDistanceBound() {
+		for (String target : List.of("simple", "zyw0o", "zyw00", "nik0", "s1mplezyw0o")) {
+			for (int maxDistance = 1; maxDistance <= 2; maxDistance++) {
+				List<FuzzyNameIndex.NearMiss> misses = search(target, maxDistance);
+				int previous = 0;
+				for (FuzzyNameIndex.NearMiss miss : misses) {
+					assertTrue(miss.distance() >= 1 && miss.distance() <= maxDistance, target + " -> " + miss.spelling());
+					assertEquals(levenshtein(target, miss.spelling()), miss.distance(), target + " -> " + miss.spelling());
+					assertEquals(spelledBy(miss), miss.spelling());
+					assertTrue(miss.distance() >= previous, "closest first for " + target);
+					previous = miss.distance();
+				}
+			}
+		}
+		assertTrue(search("zyw00", 1).stream().noneMatch(miss -> miss.spelling().equals("zywoo")));
+	}
+
+	@Test
+	void nearMissSpellingsEmptyWhenExactSpellingExists() {
+		NameGeneratorService generator = new NameGeneratorService(stickerService, new SimpleMeterRegistry(),
+			5, 100, 1000, 0, 0, 2, 2);
+		for (String target : List.of("s1mple", "zywoo", "s1mplezywoo")) {
+			assertFalse(generator.generateNameCombinations(target, 5, false).isEmpty(), target);
+			assertTrue(generator.findNearMissSpellings(target, 5).isEmpty(), target);
+		}
+		assertFalse(generator.findNearMissSpellings("simple", 5).isEmpty());
+	}
+
+	private FuzzyNameIndex.NearMiss find(String target, int maxDistance, String spelling) {
+		return search(target, maxDistance).stream()
+			.filter(miss -> miss.spelling().equals(spelling))
+			.findFirst()
+			.orElseThrow(() -> new AssertionError(spelling + " not suggested for " + target));
+	}
+
+	private List<FuzzyNameIndex.NearMiss> search(String target, int maxDistance) {
+		return catalog.getFuzzyIndex().findNearMisses(target.toCharArray(), maxDistance, 2, 1000, NO_DEADLINE);
+	}
+
+	private String spelledBy(FuzzyNameIndex.NearMiss miss) {
+		StringBuilder spelling = new StringBuilder();
+		for (int i = 0; i < miss.nameIds().length; i++) {
+			spelling.append(catalog.getName(miss.nameIds()[i]), 0, miss.usedLengths()[i]);
+		}
+		return spelling.toString();
+	}
+
+	private static int levenshtein(String a, String b) {
+		int[] row = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) row[j] = j;
+		for (int i = 1; i <= a.length(); i++) {
+			int diagonal = row[0];
+			row[0] = i;
+			for (int j = 1; j <= b.length(); j++) {
+				int above = row[j];
+				int substitute = diagonal + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+				row[j] = Math.min(substitute, Math.min(above, row[j - 1]) + 1);
+				diagonal = above;
+			}
+		}
+		return row[b.length()];
+	}
+}
@@ -0,0 +1,44 @@
+package com.example.stickergenerator.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceCacheTest {
+
+	@Test
+	void flagsEntriesOlderThanTtlAsStale() {
+		PriceCache cache = new PriceCache(60_000, 100);
+		long now = System.currentTimeMillis();
+		cache.put("fresh", 1.0, now);
+		cache.put("stale", 2.0, now - 120_000);
+
+		assertTrue(cache.isFresh(cache.get("fresh")));
+		assertFalse(cache.isFresh(cache.get("stale")));
+		assertEquals(2.0, cache.get("stale").price());
+	}
+
+	@Test
+	void keepsNewestPrice() {
+		PriceCache cache = new PriceCache(60_000, 100);
+		cache.put("sticker", 2.0, 2_000);
+		cache.put("sticker", 1.0, 1_000);
+		assertEquals(2.0, cache.get("sticker").price());
+		cache.put("sticker", 3.0, 3_000);
+		assertEquals(3.0, cache.get("sticker").price());
+	}
+
+	@Test
+	void evictsOldestBeyondMaxSize() {
+		PriceCache cache = new PriceCache(60_000, 20);
+		for (int i = 0; i < 21; i++) {
+			cache.put("sticker" + i, 1.0, 1_000 + i);
+		}
+
+		assertTrue(cache.size() <= 20);
+		assertNull(cache.get("sticker0"));
+		assertNull(cache.get("sticker1"));
+		assertNotNull(cache.get("sticker20"));
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.example.stickergenerator.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceStoreTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void loadSkipsDamagedLinesAndKeepsNewest() throws IOException {
+		Path log = dir.resolve("prices.log");
+		Files.write(log, List.of(
+			"2000\t2.0\tSticker | foo | X",
+			"1000\t1.0\tSticker | foo | X",
+			"1500\t0.5\tSticker | bar | X",
+			"1600\t0.7",
+			"abc\t0.9\tSticker | bar | X",
+			"1700\tcheap\tSticker | bar | X",
+			"1800\t0.8\tSticker | baz | X"), StandardCharsets.UTF_8);
+
+		PriceCache cache = new PriceCache(60_000, 100);
+		PriceStore store = new PriceStore(log);
+		assertEquals(4, store.load(cache));
+		store.close();
+
+		assertEquals(3, cache.size());
+		assertEquals(new PriceCache.Entry(2.0, 2000), cache.get("Sticker | foo | X"));
+		assertEquals(new PriceCache.Entry(0.5, 1500), cache.get("Sticker | bar | X"));
+		assertEquals(new PriceCache.Entry(0.8, 1800), cache.get("Sticker | baz | X"));
+	}
+
+	@Test
+	void compactRewritesOneLinePerSticker() throws IOException {
+		Path log = dir.resolve("prices.log");
+		PriceCache cache = new PriceCache(60_000, 100);
+		PriceStore store = new PriceStore(log);
+		store.load(cache);
+		for (int i = 0; i < 3; i++) {
+			store.append("Sticker | foo | X", 1.0 + i, 1000 + i);
+			cache.put("Sticker | foo | X", 1.0 + i, 1000 + i);
+		}
+		store.append("Sticker | bar | X", 0.5, 1500);
+		cache.put("Sticker | bar | X", 0.5, 1500);
+		assertEquals(4, Files.readAllLines(log).size());
+
+		store.compact(cache.snapshot());
+		store.append("Sticker | baz | X", 0.8, 1800);
+		store.close();
+
+		assertFalse(Files.exists(dir.resolve("prices.log.tmp")));
+		List<String> lines = Files.readAllLines(log);
+		assertEquals(3, lines.size());
+		assertTrue(lines.contains("1002\t3.0\tSticker | foo | X"));
+		assertTrue(lines.contains("1500\t0.5\tSticker | bar | X"));
+		assertEquals("1800\t0.8\tSticker | baz | X", lines.get(2));
+
+		PriceCache restored = new PriceCache(60_000, 100);
+		new PriceStore(log).load(restored);
+		assertEquals(3.0, restored.get("Sticker | foo | X").price());
+	}
+
+}
@@ -0,0 +1,167 @@
+package com.example.stickergenerator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.IntToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpellingSearchTest {
+
+	private static final long NO_DEADLINE = Long.MAX_VALUE / 4;
+
+	private static final List<String> TARGETS = List.of("s1mplezywoo", "zywoos1mple", "apexzywoo", "devicezywoo", "niko");
+
+	private final StickerCatalog catalog = new StickerService(new ObjectMapper(), "", false).getCatalog();
+
+	@Test
+	void findSpellsTargetWithinStickerBounds() {
+		for (String target : TARGETS) {
+			char[] chars = target.toCharArray();
+			List<int[]> all = search().find(chars, 1, 5, Integer.MAX_VALUE, far());
+			assertFalse(all.isEmpty(), target);
+			for (int[] nameIds : all) {
+				assertTrue(spells(target, 0, nameIds, 0, false), target + " from " + spell(nameIds));
+			}
+
+			for (int stickers = 1; stickers <= 5; stickers++) {
+				TreeSet<String> expected = new TreeSet<>();
+				for (int[] nameIds : all) {
+					if (nameIds.length == stickers) expected.add(spell(nameIds));
+				}
+				TreeSet<String> found = new TreeSet<>();
+				for (int[] nameIds : search().find(chars, stickers, stickers, Integer.MAX_VALUE, far())) {
+					assertEquals(stickers, nameIds.length, target);
+					found.add(spell(nameIds));
+				}
+				assertEquals(expected, found, target + " with " + stickers + " stickers");
+			}
+
+			for (int[] nameIds : search().find(chars, 2, 3, Integer.MAX_VALUE, far())) {
+				assertTrue(nameIds.length >= 2 && nameIds.length <= 3, target);
+			}
+		}
+	}
+
+	@Test
+	void findReportsCap() {
+		SpellingSearch search = search();
+		List<int[]> capped = search.find("s1mplezywoo".toCharArray(), 1, 5, 3, far());
+		assertEquals(3, capped.size());
+		assertTrue(search.isCutShort());
+
+		List<int[]> expired = search.find("s1mplezywoo".toCharArray(), 1, 5, 100, System.nanoTime() - 1);
+		assertTrue(expired.isEmpty());
+		assertTrue(search.isCutShort());
+	}
+
+	@Test
+	void findCheapestMatchesPricingEverySpelling() {
+		List<IntToDoubleFunction> prices = List.of(stickerId -> 1.0,
+			stickerId -> 0.01 + (stickerId * 2654435761L % 997) / 100.0,
+			stickerId -> 0.03 + (stickerId * 40503L % 89) / 10.0);
+		for (IntToDoubleFunction price : prices) {
+			for (String target : TARGETS) {
+				for (int maxStickers = 1; maxStickers <= 5; maxStickers++) {
+					assertCheapest(target, maxStickers, price);
+				}
+			}
+		}
+	}
+
+	private void assertCheapest(String target, int maxStickers, IntToDoubleFunction price) {
+		// Every spelling with the variant rule findCheapest promises, priced and deduplicated
+		Map<String, Double> costs = new HashMap<>();
+		for (int[] nameIds : search().find(target.toCharArray(), 1, maxStickers, Integer.MAX_VALUE, far())) {
+			int[] stickers = cheapestVariants(nameIds, price);
+			if (stickers != null) costs.put(Arrays.toString(stickers), cost(stickers, price));
+		}
+		List<Double> expected = new ArrayList<>(costs.values());
+		Collections.sort(expected);
+
+		List<int[]> cheapest = search().findCheapest(target.toCharArray(), maxStickers, 10, price, far());
+		assertEquals(Math.min(10, expected.size()), cheapest.size(), target);
+		Set<String> distinct = new HashSet<>();
+		for (int i = 0; i < cheapest.size(); i++) {
+			assertTrue(distinct.add(Arrays.toString(cheapest.get(i))), target + " repeats " + Arrays.toString(cheapest.get(i)));
+			assertTrue(cheapest.get(i).length <= maxStickers, target);
+			assertEquals(expected.get(i), cost(cheapest.get(i), price), 1e-9, target + " #" + i);
+		}
+	}
+
+	@Test
+	void findCheapestStopsAtDeadline() {
+		assertTrue(search().findCheapest("s1mplezywoo".toCharArray(), 3, 5, stickerId -> 1.0, System.nanoTime() - 1)
+			.isEmpty());
+	}
+
+	/**
+	 * Each name's cheapest variant, or its next cheapest right after that same sticker
+	 */
+	private int[] cheapestVariants(int[] nameIds, IntToDoubleFunction price) {
+		int[] stickers = new int[nameIds.length];
+		for (int i = 0; i < nameIds.length; i++) {
+			List<Integer> variants = new ArrayList<>();
+			for (int v = 0; v < catalog.getVariantCount(nameIds[i]); v++) {
+				variants.add(catalog.getVariant(nameIds[i], v));
+			}
+			variants.sort(Comparator.comparingDouble(price::applyAsDouble));
+			boolean repeat = i > 0 && stickers[i - 1] == variants.get(0);
+			if (repeat && variants.size() < 2) return null;
+			stickers[i] = variants.get(repeat ? 1 : 0);
+		}
+		return stickers;
+	}
+
+	private static double cost(int[] stickers, IntToDoubleFunction price) {
+		double cost = 0;
+		for (int sticker : stickers) {
+			cost += price.applyAsDouble(sticker);
+		}
+		return cost;
+	}
+
+	/**
+	 * Whether the names from i on can cover target[pos..]: each whole, cut at the end (never the
+	 * last) or cut at the front (never the first, nor right after a sticker cut at the end)
+	 */
+	private boolean spells(String target, int pos, int[] nameIds, int i, boolean afterCutEnd) {
+		if (i == nameIds.length) return pos == target.length();
+		String name = catalog.getName(nameIds[i]);
+		if (target.startsWith(name, pos) && spells(target, pos + name.length(), nameIds, i + 1, false)) {
+			return true;
+		}
+		for (int cut = 1; cut < name.length(); cut++) {
+			String prefix = name.substring(0, cut);
+			if (i + 1 < nameIds.length && target.startsWith(prefix, pos)
+					&& spells(target, pos + cut, nameIds, i + 1, true)) {
+				return true;
+			}
+			String suffix = name.substring(cut);
+			if (pos > 0 && !afterCutEnd && target.startsWith(suffix, pos)
+					&& spells(target, pos + suffix.length(), nameIds, i + 1, false)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private SpellingSearch search() {
+		return new SpellingSearch(catalog.getMatchIndex());
+	}
+
+	private static long far() {
+		return System.nanoTime() + NO_DEADLINE;
+	}
+
+	private String spell(int[] nameIds) {
+		List<String> names = new ArrayList<>();
+		for (int nameId : nameIds) {
+			names.add(catalog.getName(nameId));
+		}
+		return String.join("+", names);
+	}
+
+}
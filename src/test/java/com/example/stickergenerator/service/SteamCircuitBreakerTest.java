@@ -0,0 +1,129 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.service.SteamCircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SteamCircuitBreakerTest {
+
+	@Test
+	void opensAtFailureRateOnceMinimumCallsReached() {
+		SteamCircuitBreaker breaker = new SteamCircuitBreaker(10, 4, 50, 60_000);
+		breaker.recordFailure();
+		breaker.recordFailure();
+		breaker.recordFailure();
+		// Every call so far failed, but fewer than minimumCalls were made
+		assertEquals(State.CLOSED, breaker.getState());
+
+		breaker.recordSuccess();
+		// 3 of 4 failed
+		assertEquals(State.CLOSED, breaker.getState());
+		breaker.recordFailure();
+		assertEquals(State.OPEN, breaker.getState());
+	}
+
+	@Test
+	void staysClosedBelowFailureRate() {
+		SteamCircuitBreaker breaker = new SteamCircuitBreaker(10, 4, 50, 60_000);
+		for (int i = 0; i < 20; i++) {
+			breaker.recordSuccess();
+			breaker.recordSuccess();
+			breaker.recordFailure();
+		}
+		assertEquals(State.CLOSED, breaker.getState());
+		assertTrue(breaker.allowRequest());
+	}
+
+	@Test
+	void refusesRequestsWhileOpenOrHalfOpen() {
+		SteamCircuitBreaker breaker = opened(60_000);
+		assertFalse(breaker.allowRequest());
+		// The open duration has not passed yet
+		assertFalse(breaker.tryStartProbe());
+
+		SteamCircuitBreaker probing = opened(0);
+		assertTrue(probing.tryStartProbe());
+		assertEquals(State.HALF_OPEN, probing.getState());
+		assertFalse(probing.allowRequest());
+		assertEquals(1L, breaker.getStats().get("rejected"));
+		assertEquals(1L, probing.getStats().get("rejected"));
+	}
+
+	@Test
+	void grantsExactlyOneProbe() throws InterruptedException {
+		SteamCircuitBreaker breaker = opened(0);
+		int callers = 16;
+		AtomicInteger winners = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < callers; i++) {
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				if (breaker.tryStartProbe()) winners.incrementAndGet();
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(1, winners.get());
+	}
+
+	@Test
+	void closesWhenProbeSucceeds() {
+		SteamCircuitBreaker breaker = opened(0);
+		assertTrue(breaker.tryStartProbe());
+		breaker.recordSuccess();
+		assertEquals(State.CLOSED, breaker.getState());
+		assertTrue(breaker.allowRequest());
+
+		// The window starts over after closing
+		breaker.recordFailure();
+		assertEquals(State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void reopensWhenProbeFails() {
+		SteamCircuitBreaker breaker = new SteamCircuitBreaker(10, 2, 50, 50);
+		breaker.recordFailure();
+		breaker.recordFailure();
+		assertEquals(State.OPEN, breaker.getState());
+
+		sleep(80);
+		assertTrue(breaker.tryStartProbe());
+		breaker.recordFailure();
+		assertEquals(State.OPEN, breaker.getState());
+		// A new full open duration starts
+		assertFalse(breaker.tryStartProbe());
+		assertEquals(2L, breaker.getStats().get("timesOpened"));
+	}
+
+	private static SteamCircuitBreaker opened(long openDurationMillis) {
+		SteamCircuitBreaker breaker = new SteamCircuitBreaker(10, 2, 50, openDurationMillis);
+		breaker.recordFailure();
+		breaker.recordFailure();
+		assertEquals(State.OPEN, breaker.getState());
+		return breaker;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.StickerPrice;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SteamMarketServiceTest {
+
+	@Test
+	void servesStalePriceWhileOneRefreshRuns() {
+		StubProvider provider = new StubProvider();
+		// A TTL of zero makes every cached price stale at once
+		SteamMarketService service = service(0, provider);
+		CompletableFuture<StickerPrice> first = service.getStickerPrice("Sticker | foo | X");
+		provider.complete(2.5);
+		assertEquals(2.5, first.join().getPrice());
+
+		for (int i = 0; i < 5; i++) {
+			CompletableFuture<StickerPrice> stale = service.getStickerPrice("Sticker | foo | X");
+			assertTrue(stale.isDone());
+			assertEquals(2.5, stale.join().getPrice());
+		}
+		assertEquals(2, provider.fetches.size());
+
+		provider.complete(3.0);
+		assertEquals(3.0, service.getStickerPrice("Sticker | foo | X").join().getPrice());
+	}
+
+	@Test
+	void concurrentLookupsShareOneFetch() throws InterruptedException {
+		StubProvider provider = new StubProvider();
+		SteamMarketService service = service(3600, provider);
+		int callers = 16;
+		List<CompletableFuture<StickerPrice>> results = new CopyOnWriteArrayList<>();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < callers; i++) {
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				results.add(service.getStickerPrice("Sticker | foo | X", "caller-" + Thread.currentThread().getName()));
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(1, provider.fetches.size());
+		provider.complete(4.0);
+		assertEquals(callers, results.size());
+		for (CompletableFuture<StickerPrice> result : results) {
+			assertEquals(4.0, result.join().getPrice());
+		}
+		assertEquals(1L, service.getFetchStats().get("fetchesStarted"));
+		assertEquals((long) callers - 1, service.getFetchStats().get("fetchesCoalesced"));
+	}
+
+	@Test
+	void warmsInBackgroundOneRunAtATime() {
+		StubProvider provider = new StubProvider();
+		SteamMarketService service = service(3600, provider);
+		List<String> stickerNames = List.of("Sticker | foo | X", "Sticker | bar | X");
+
+		assertTrue(service.warmPrices(stickerNames));
+		assertFalse(service.warmPrices(stickerNames));
+		assertEquals(2, provider.fetches.size());
+		assertEquals(List.of(PriceProvider.BACKGROUND_REQUESTER, PriceProvider.BACKGROUND_REQUESTER),
+			new ArrayList<>(provider.requesters));
+
+		provider.complete(1.0);
+		assertTrue(service.warmPrices(List.of("Sticker | baz | X")));
+	}
+
+	@Test
+	void persistsPricesOnlyForMarketProviders(@TempDir Path dir) throws IOException {
+		Path log = dir.resolve("prices.log");
+		Files.writeString(log, System.currentTimeMillis() + "\t9.99\tSticker | foo | X\n");
+
+		SteamMarketService local = new SteamMarketService(3600, 1000, log.toString(),
+			new LocalPriceProvider(new ObjectMapper(), "", 0, 0, 42), false, 20, 200, 80, 600_000, new SimpleMeterRegistry());
+		local.init();
+		assertNotEquals(9.99, local.getStickerPrice("Sticker | foo | X").join().getPrice());
+		local.getStickerPrice("Sticker | bar | X").join();
+		local.shutdown();
+		assertEquals(1, Files.readAllLines(log).size());
+
+		StubProvider provider = new StubProvider();
+		SteamMarketService market = new SteamMarketService(3600, 1000, log.toString(),
+			provider, false, 20, 200, 80, 600_000, new SimpleMeterRegistry());
+		market.init();
+		assertEquals(9.99, market.getStickerPrice("Sticker | foo | X").join().getPrice());
+		CompletableFuture<StickerPrice> bar = market.getStickerPrice("Sticker | bar | X");
+		provider.complete(1.5);
+		bar.join();
+		market.shutdown();
+		assertEquals(2, Files.readAllLines(log).size());
+	}
+
+	@Test
+	void backsOffHotStickersWithoutMarketPrice() throws InterruptedException {
+		StubProvider provider = new StubProvider();
+		// Refresh budget large enough that a few milliseconds pay for every refresh
+		SteamMarketService service = new SteamMarketService(3600, 1000, "", provider, true, 6_000_000, 200, 80,
+			60_000, new SimpleMeterRegistry());
+		CompletableFuture<StickerPrice> missing = service.getStickerPrice("Sticker | foo | X");
+		provider.complete(0.0);
+		missing.join();
+
+		Thread.sleep(5);
+		service.refreshHotPrices();
+		assertEquals(2, provider.fetches.size());
+		provider.complete(0.0);
+
+		Thread.sleep(5);
+		service.refreshHotPrices();
+		service.refreshHotPrices();
+		assertEquals(2, provider.fetches.size());
+		assertEquals(1, service.getRefreshStats().get("backingOff"));
+		assertEquals(1L, service.getRefreshStats().get("refreshesFailed"));
+	}
+
+	private static SteamMarketService service(long ttlSeconds, PriceProvider provider) {
+		return new SteamMarketService(ttlSeconds, 1000, "", provider, false, 20, 200, 80, 600_000, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Provider whose lookups stay pending until the test completes them
+	 */
+	private static final class StubProvider implements PriceProvider {
+		private final ConcurrentLinkedQueue<CompletableFuture<Double>> fetches = new ConcurrentLinkedQueue<>();
+		private final ConcurrentLinkedQueue<CompletableFuture<Double>> pending = new ConcurrentLinkedQueue<>();
+		private final ConcurrentLinkedQueue<String> requesters = new ConcurrentLinkedQueue<>();
+
+		@Override
+		public String getName() {
+			return "stub";
+		}
+
+		@Override
+		public CompletableFuture<Double> fetchPrice(String stickerName, String requester) {
+			CompletableFuture<Double> fetch = new CompletableFuture<>();
+			fetches.add(fetch);
+			requesters.add(requester);
+			pending.add(fetch);
+			return fetch;
+		}
+
+		private void complete(double price) {
+			for (CompletableFuture<Double> fetch; (fetch = pending.poll()) != null; ) {
+				fetch.complete(price);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.example.stickergenerator.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SteamRateLimiterTest {
+
+	// One permit every 200 ms, far slower than the test queues its waiters
+	private final SteamRateLimiter limiter = new SteamRateLimiter(5, 1,
+		Timer.builder("test.wait").register(new SimpleMeterRegistry()));
+
+	private final List<String> granted = Collections.synchronizedList(new ArrayList<>());
+
+	@AfterEach
+	void shutdown() {
+		limiter.shutdown();
+	}
+
+	@Test
+	void servesRequestersRoundRobinAndBackgroundLast() {
+		acquire("warmup").join();
+
+		List<CompletableFuture<Void>> permits = new ArrayList<>();
+		permits.add(acquire(PriceProvider.BACKGROUND_REQUESTER, "background-1"));
+		permits.add(acquire(PriceProvider.BACKGROUND_REQUESTER, "background-2"));
+		permits.add(acquire("a", "a-1"));
+		permits.add(acquire("a", "a-2"));
+		permits.add(acquire("a", "a-3"));
+		permits.add(acquire("b", "b-1"));
+		permits.add(acquire("b", "b-2"));
+		assertFalse(limiter.hasSpareCapacity());
+
+		CompletableFuture.allOf(permits.toArray(CompletableFuture[]::new)).join();
+		assertEquals(List.of("warmup", "a-1", "b-1", "a-2", "b-2", "a-3", "background-1", "background-2"), granted);
+		assertTrue(limiter.hasSpareCapacity());
+	}
+
+	@Test
+	void backgroundWaitersLeaveSpareCapacity() {
+		acquire("warmup").join();
+		CompletableFuture<Void> background = acquire(PriceProvider.BACKGROUND_REQUESTER, "background-1");
+		assertTrue(limiter.hasSpareCapacity());
+
+		CompletableFuture<Void> user = acquire("a", "a-1");
+		assertFalse(limiter.hasSpareCapacity());
+		CompletableFuture.allOf(background, user).join();
+		assertEquals(List.of("warmup", "a-1", "background-1"), granted);
+	}
+
+	private CompletableFuture<Void> acquire(String requester) {
+		return acquire(requester, requester);
+	}
+
+	private CompletableFuture<Void> acquire(String requester, String label) {
+		return limiter.acquire(requester).thenRun(() -> granted.add(label));
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.example.stickergenerator.service;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SteamScraperPriceProviderTest {
+
+	@Test
+	void parsesEveryPricedRowOfSavedSearchPage() throws IOException {
+		Map<String, Double> prices;
+		try (InputStream in = new ClassPathResource("steam/search-s1mple.html").getInputStream()) {
+			prices = SteamScraperPriceProvider.parseSearchPage(Jsoup.parse(in, "UTF-8", "https://steamcommunity.com/"));
+		}
+
+		assertEquals(10, prices.size());
+		assertEquals(0.31, prices.get("sticker | s1mple | copenhagen 2024"));
+		assertEquals(18.74, prices.get("sticker | s1mple (gold) | copenhagen 2024"));
+		assertEquals(0.09, prices.get("sticker | s1mple (glitter) | rio 2022"));
+		assertEquals(1102.50, prices.get("sticker | s1mple (gold) | stockholm 2021"));
+	}
+
+	@Test
+	void skipsRowsWithoutNameOrPrice() {
+		String html = "<div class='market_listing_row'><span class='market_listing_item_name'>Sticker | a | X</span></div>"
+			+ "<div class='market_listing_row'><span class='normal_price'>$1.00 USD</span></div>"
+			+ "<div class='market_listing_row'><span class='market_listing_item_name'>Sticker | b | X</span>"
+			+ "<span class='normal_price'>$2.00 USD</span></div>"
+			+ "<div class='market_listing_row'><span class='market_listing_item_name'>Sticker | b | X</span>"
+			+ "<span class='normal_price'>$3.00 USD</span></div>";
+
+		assertEquals(Map.of("sticker | b | x", 2.0), SteamScraperPriceProvider.parseSearchPage(Jsoup.parse(html)));
+	}
+
+	@Test
+	void extractsPricesInSteamFormats() {
+		assertEquals(0.31, SteamScraperPriceProvider.extractPrice("Starting at: $0.31 USD"));
+		assertEquals(1102.50, SteamScraperPriceProvider.extractPrice("$1,102.50 USD"));
+		assertEquals(1.25, SteamScraperPriceProvider.extractPrice("£1.00"));
+		assertEquals(4.2, SteamScraperPriceProvider.extractPrice("4,20"));
+		assertEquals(0.0, SteamScraperPriceProvider.extractPrice("Sold out"));
+	}
+
+	@Test
+	void groupsStickersByPlayerAndSplitsFullPages() {
+		List<String> stickerNames = new ArrayList<>();
+		String[] tournaments = {"Copenhagen 2024", "Rio 2022", "Stockholm 2021"};
+		for (String tournament : tournaments) {
+			for (String rarity : new String[]{"", " (Gold)", " (Holo)", " (Glitter)"}) {
+				stickerNames.add("Sticker | s1mple" + rarity + " | " + tournament);
+			}
+		}
+		stickerNames.add("Sticker | ZywOo | Paris 2023");
+		stickerNames.add("Sticker | ZywOo (Gold) | Paris 2023");
+
+		Map<String, List<String>> groups = SteamScraperPriceProvider.groupBySearchQuery(stickerNames);
+
+		// Twelve s1mple stickers do not fit one results page, two ZywOo stickers do
+		assertEquals(List.of("s1mple copenhagen 2024", "s1mple rio 2022", "s1mple stockholm 2021", "zywoo"),
+			new ArrayList<>(groups.keySet()));
+		assertEquals(4, groups.get("s1mple rio 2022").size());
+		assertEquals(List.of("Sticker | ZywOo | Paris 2023", "Sticker | ZywOo (Gold) | Paris 2023"), groups.get("zywoo"));
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.example.stickergenerator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StickerMatchIndexTest {
+
+	private final StickerCatalog catalog = new StickerService(new ObjectMapper(), "", false).getCatalog();
+
+	@Test
+	void findPairsMatchesNestedScan() {
+		List<String> targets = new ArrayList<>(List.of("s1mplezywoo", "s1mplzywoo", "zywoo", "apexzywoo", "x", "aa"));
+		Random random = new Random(1);
+		for (int i = 0; i < 200; i++) {
+			String first = catalog.getName(random.nextInt(catalog.getNameCount()));
+			String second = catalog.getName(random.nextInt(catalog.getNameCount()));
+			targets.add(first.substring(0, 1 + random.nextInt(first.length())) + second.substring(random.nextInt(second.length())));
+		}
+
+		for (String target : targets) {
+			List<String> found = new ArrayList<>();
+			for (int[] pair : catalog.getMatchIndex().findPairs(target.toCharArray())) {
+				found.add(catalog.getName(pair[0]) + "+" + catalog.getName(pair[1]));
+			}
+			List<String> expected = nestedScan(target);
+			Collections.sort(found);
+			Collections.sort(expected);
+			assertEquals(expected, found, target);
+		}
+	}
+
+	/**
+	 * Every ordered pair of names tried against concat, overlap and reverse overlap
+	 */
+	private List<String> nestedScan(String target) {
+		List<String> matches = new ArrayList<>();
+		for (int i = 0; i < catalog.getNameCount(); i++) {
+			String first = catalog.getName(i);
+			if (!target.startsWith(first.substring(0, 1))) continue;
+			for (int j = 0; j < catalog.getNameCount(); j++) {
+				String second = catalog.getName(j);
+				String pair = first + "+" + second;
+				if ((first + second).equals(target)) matches.add(pair);
+				for (int cut = 1; cut < first.length(); cut++) {
+					if ((first.substring(0, cut) + second).equals(target)) matches.add(pair);
+				}
+				for (int cut = 1; cut < second.length(); cut++) {
+					if ((first + second.substring(cut)).equals(target)) matches.add(pair);
+				}
+			}
+		}
+		return matches;
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.example.stickergenerator.service;
+
+import com.example.stickergenerator.model.Sticker;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StickerServiceTest {
+
+	@Test
+	void parseStickerMatchesRegexParsing() throws IOException {
+		List<String> fullNames = new ArrayList<>();
+		try (InputStream in = new ClassPathResource("data/stickers.json").getInputStream()) {
+			fullNames.addAll(new ObjectMapper().readValue(in, new TypeReference<List<String>>() {}));
+		}
+		fullNames.addAll(List.of("Sticker | (Gold) | X", "Sticker |  a  (Holo)  |  T  ", "Sticker | a (b)c | T",
+			"Sticker | a (b) |", "Sticker | a) | T", "Sticker | a ((b)) | T", "Sticker | a (b | T",
+			"Sticker | a | b | c", "Sticker |a|b", "xx Sticker | a | b", "Sticker | a (Gold) (Holo) | T",
+			"Sticker |   | T", "Sticker | a\t| T", "Sticker | ZywOo (Gold, Champion) | Paris 2023", "Not a sticker"));
+
+		for (String fullName : fullNames) {
+			assertEquals(regexParse(fullName).toString(), StickerService.parseSticker(fullName).toString(), fullName);
+		}
+	}
+
+	/**
+	 * The regex-only parser that parseSticker's hand-written fast path has to agree with
+	 */
+	private static Sticker regexParse(String fullName) {
+		Matcher matcher = Pattern.compile("Sticker\\s*\\|\\s*([^|()]+?)\\s*(?:\\([^)]*\\))?\\s*\\|\\s*(.+)").matcher(fullName);
+		if (matcher.find()) {
+			Matcher rarity = Pattern.compile("\\((Gold|Holo|Glitter)\\)").matcher(fullName);
+			return new Sticker(fullName, matcher.group(1).trim(), rarity.find() ? rarity.group(1) : "", matcher.group(2).trim());
+		}
+		Matcher simple = Pattern.compile("Sticker\\s*\\|\\s*([^|]+)").matcher(fullName);
+		if (simple.find()) {
+			return new Sticker(fullName, simple.group(1).trim().replaceAll("\\s*\\([^)]*\\)\\s*", "").trim(), "", "");
+		}
+		return new Sticker(fullName, fullName, "", "");
+	}
+
+}